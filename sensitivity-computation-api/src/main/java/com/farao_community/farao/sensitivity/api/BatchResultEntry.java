@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.powsybl.commons.json.JsonUtil;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Result of one variant of a batch computation.
+ *
+ * Batch results are streamed as newline delimited JSON, one entry per line, in the order
+ * variant computations finish. An entry holds either the result or the error of its variant.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResultEntry {
+    private static final ObjectMapper OBJECT_MAPPER = JsonUtil.createObjectMapper();
+    private static final ObjectWriter LINE_WRITER = OBJECT_MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    @JsonProperty("variantId")
+    private final String variantId;
+    @JsonProperty("result")
+    private final SensitivityAnalysisResult result;
+    @JsonProperty("error")
+    private final String error;
+
+    @JsonCreator
+    public BatchResultEntry(@JsonProperty("variantId") String variantId,
+                            @JsonProperty("result") SensitivityAnalysisResult result,
+                            @JsonProperty("error") String error) {
+        this.variantId = variantId;
+        this.result = result;
+        this.error = error;
+    }
+
+    public String getVariantId() {
+        return variantId;
+    }
+
+    public SensitivityAnalysisResult getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void writeLine(OutputStream outputStream) {
+        try {
+            LINE_WRITER.writeValue(outputStream, this);
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static BatchResultEntry readLine(String line) {
+        try {
+            return OBJECT_MAPPER.readValue(line, BatchResultEntry.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
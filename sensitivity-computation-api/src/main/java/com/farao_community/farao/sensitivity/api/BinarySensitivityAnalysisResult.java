@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityValue;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary encoding of sensitivity analysis results.
+ *
+ * Factors are written once, as a JSON dictionary, and referenced by index. Then for the base case and each
+ * contingency, in order, factor indexes, sensitivity values, function references and variable references
+ * are written as packed arrays of big endian primitives.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public final class BinarySensitivityAnalysisResult {
+    public static final String MEDIA_TYPE = "application/vnd.farao.sensitivity-result";
+
+    private static final int MAGIC = 0x53454E53;
+    private static final int VERSION = 1;
+    private static final TypeReference<List<SensitivityFactor>> FACTORS_TYPE = new TypeReference<List<SensitivityFactor>>() { };
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectWriter FACTORS_WRITER = OBJECT_MAPPER.writerFor(FACTORS_TYPE);
+    private static final ObjectReader FACTORS_READER = OBJECT_MAPPER.readerFor(FACTORS_TYPE);
+
+    private BinarySensitivityAnalysisResult() {
+        throw new AssertionError("Utility class should not be implemented");
+    }
+
+    public static void write(SensitivityAnalysisResult result, OutputStream outputStream) {
+        try {
+            DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+            dataOutputStream.writeInt(MAGIC);
+            dataOutputStream.writeInt(VERSION);
+            dataOutputStream.writeBoolean(result.isOk());
+            Map<String, String> metrics = result.getMetrics() != null ? result.getMetrics() : Collections.emptyMap();
+            dataOutputStream.writeInt(metrics.size());
+            for (Map.Entry<String, String> metric : metrics.entrySet()) {
+                writeString(dataOutputStream, metric.getKey());
+                writeString(dataOutputStream, metric.getValue());
+            }
+            writeString(dataOutputStream, result.getLogs());
+
+            // Factors are usually repeated for the base case and each contingency, as distinct instances once parsed
+            Map<List<Object>, Integer> factorIndexes = new HashMap<>();
+            List<SensitivityFactor> factors = new ArrayList<>();
+            indexFactors(result.getSensitivityValues(), factorIndexes, factors);
+            result.getSensitivityValuesContingencies().values().forEach(values -> indexFactors(values, factorIndexes, factors));
+            byte[] factorsBytes = FACTORS_WRITER.writeValueAsBytes(factors);
+            dataOutputStream.writeInt(factorsBytes.length);
+            dataOutputStream.write(factorsBytes);
+
+            writeValues(dataOutputStream, result.getSensitivityValues(), factorIndexes);
+            dataOutputStream.writeInt(result.getSensitivityValuesContingencies().size());
+            for (Map.Entry<String, List<SensitivityValue>> contingencyValues : result.getSensitivityValuesContingencies().entrySet()) {
+                writeString(dataOutputStream, contingencyValues.getKey());
+                writeValues(dataOutputStream, contingencyValues.getValue(), factorIndexes);
+            }
+            dataOutputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static SensitivityAnalysisResult read(InputStream inputStream) {
+        try {
+            DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream));
+            if (dataInputStream.readInt() != MAGIC) {
+                throw new PowsyblException("Not a binary sensitivity analysis result");
+            }
+            int version = dataInputStream.readInt();
+            if (version != VERSION) {
+                throw new PowsyblException(String.format("Unsupported binary sensitivity analysis result version %d", version));
+            }
+            boolean ok = dataInputStream.readBoolean();
+            int metricsCount = dataInputStream.readInt();
+            Map<String, String> metrics = new HashMap<>();
+            for (int i = 0; i < metricsCount; i++) {
+                metrics.put(readString(dataInputStream), readString(dataInputStream));
+            }
+            String logs = readString(dataInputStream);
+
+            byte[] factorsBytes = new byte[dataInputStream.readInt()];
+            dataInputStream.readFully(factorsBytes);
+            List<SensitivityFactor> factors = FACTORS_READER.readValue(factorsBytes);
+
+            List<SensitivityValue> basecaseValues = readValues(dataInputStream, factors);
+            int contingenciesCount = dataInputStream.readInt();
+            Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+            for (int i = 0; i < contingenciesCount; i++) {
+                String contingencyId = readString(dataInputStream);
+                contingenciesValues.put(contingencyId, readValues(dataInputStream, factors));
+            }
+            return new SensitivityAnalysisResult(ok, metrics, logs, basecaseValues, contingenciesValues);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Factors are keyed by their type and the ids of their function and variable.
+     */
+    private static List<Object> factorKey(SensitivityFactor factor) {
+        return List.of(factor.getClass(), factor.getFunction().getId(), factor.getVariable().getId());
+    }
+
+    private static void indexFactors(Collection<SensitivityValue> values, Map<List<Object>, Integer> factorIndexes, List<SensitivityFactor> factors) {
+        for (SensitivityValue value : values) {
+            factorIndexes.computeIfAbsent(factorKey(value.getFactor()), key -> {
+                factors.add(value.getFactor());
+                return factors.size() - 1;
+            });
+        }
+    }
+
+    private static void writeValues(DataOutputStream dataOutputStream, Collection<SensitivityValue> values, Map<List<Object>, Integer> factorIndexes) throws IOException {
+        dataOutputStream.writeInt(values.size());
+        for (SensitivityValue value : values) {
+            dataOutputStream.writeInt(factorIndexes.get(factorKey(value.getFactor())));
+        }
+        for (SensitivityValue value : values) {
+            dataOutputStream.writeDouble(value.getValue());
+        }
+        for (SensitivityValue value : values) {
+            dataOutputStream.writeDouble(value.getFunctionReference());
+        }
+        for (SensitivityValue value : values) {
+            dataOutputStream.writeDouble(value.getVariableReference());
+        }
+    }
+
+    private static List<SensitivityValue> readValues(DataInputStream dataInputStream, List<SensitivityFactor> factors) throws IOException {
+        int count = dataInputStream.readInt();
+        int[] factorIndexes = new int[count];
+        readBuffer(dataInputStream, (long) count * Integer.BYTES).asIntBuffer().get(factorIndexes);
+        double[] values = readDoubles(dataInputStream, count);
+        double[] functionReferences = readDoubles(dataInputStream, count);
+        double[] variableReferences = readDoubles(dataInputStream, count);
+        List<SensitivityValue> sensitivityValues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sensitivityValues.add(new SensitivityValue(factors.get(factorIndexes[i]), values[i], functionReferences[i], variableReferences[i]));
+        }
+        return sensitivityValues;
+    }
+
+    private static double[] readDoubles(DataInputStream dataInputStream, int count) throws IOException {
+        double[] doubles = new double[count];
+        DoubleBuffer buffer = readBuffer(dataInputStream, (long) count * Double.BYTES).asDoubleBuffer();
+        buffer.get(doubles);
+        return doubles;
+    }
+
+    private static ByteBuffer readBuffer(DataInputStream dataInputStream, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new PowsyblException("Binary sensitivity analysis result section is too large");
+        }
+        byte[] bytes = new byte[(int) length];
+        dataInputStream.readFully(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static void writeString(DataOutputStream dataOutputStream, String value) throws IOException {
+        if (value == null) {
+            dataOutputStream.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dataOutputStream.writeInt(bytes.length);
+        dataOutputStream.write(bytes);
+    }
+
+    private static String readString(DataInputStream dataInputStream) throws IOException {
+        int length = dataInputStream.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        dataInputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -7,14 +7,15 @@
 package com.farao_community.farao.sensitivity.api;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.powsybl.contingency.Contingency;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.sensitivity.SensitivityFactor;
 import com.powsybl.sensitivity.SensitivityFactorsProvider;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.stream.Collectors;
 
 public class InternalSensitivityInputsProvider implements SensitivityFactorsProvider {
     @JsonProperty("commonFactors")
@@ -25,34 +26,188 @@ public class InternalSensitivityInputsProvider implements SensitivityFactorsProv
     private final Map<String, List<SensitivityFactor>> contingenciesAdditionalParameters;
     @JsonProperty("contingencies")
     private final List<Contingency> contingencies;
+    @JsonProperty("specification")
+    private final SensitivityFactorsSpecification specification;
+    private Network expandedNetwork;
+    private List<SensitivityFactor> expandedCommonFactors;
 
+    public InternalSensitivityInputsProvider(List<SensitivityFactor> commonFactors,
+                                             List<SensitivityFactor> basecaseAdditionalFactors,
+                                             Map<String, List<SensitivityFactor>> contingenciesAdditionalParameters,
+                                             List<Contingency> contingencies) {
+        this(commonFactors, basecaseAdditionalFactors, contingenciesAdditionalParameters, contingencies, null);
+    }
+
+    /**
+     * Factors defined by the specification, if any, are added to the listed factors once expanded against the network.
+     */
     @JsonCreator
     public InternalSensitivityInputsProvider(@JsonProperty("commonFactors") List<SensitivityFactor> commonFactors,
                                              @JsonProperty("basecaseAdditionalFactors") List<SensitivityFactor> basecaseAdditionalFactors,
                                              @JsonProperty("contingenciesAdditionalParameters") Map<String, List<SensitivityFactor>> contingenciesAdditionalParameters,
-                                             @JsonProperty("contingencies") List<Contingency> contingencies) {
+                                             @JsonProperty("contingencies") List<Contingency> contingencies,
+                                             @JsonProperty("specification") SensitivityFactorsSpecification specification) {
         this.commonFactors = commonFactors;
         this.basecaseAdditionalFactors = basecaseAdditionalFactors;
         this.contingenciesAdditionalParameters = contingenciesAdditionalParameters;
         this.contingencies = contingencies;
+        this.specification = specification;
+    }
+
+    /**
+     * Evaluates the factors of the given provider on the network, for the base case and each contingency.
+     * Factors specifications are kept as is, to be expanded later.
+     */
+    public static InternalSensitivityInputsProvider of(SensitivityFactorsProvider provider, Network network, List<Contingency> contingencies) {
+        if (provider instanceof SensitivityFactorsSpecification) {
+            return new InternalSensitivityInputsProvider(Collections.emptyList(), Collections.emptyList(), Collections.emptyMap(), contingencies,
+                (SensitivityFactorsSpecification) provider);
+        }
+        return new InternalSensitivityInputsProvider(
+                provider.getCommonFactors(network),
+                provider.getAdditionalFactors(network),
+                contingencies.stream().collect(Collectors.toMap(Contingency::getId, co -> provider.getAdditionalFactors(network, co.getId()))),
+                contingencies
+        );
     }
 
     public List<Contingency> getContingencies() {
         return contingencies;
     }
 
+    public SensitivityFactorsSpecification getSpecification() {
+        return specification;
+    }
+
+    /**
+     * Common factors, expanded once per network as they are shared by the base case and all contingencies.
+     */
     @Override
-    public List<SensitivityFactor> getCommonFactors(Network network) {
-        return commonFactors;
+    public synchronized List<SensitivityFactor> getCommonFactors(Network network) {
+        if (specification == null) {
+            return commonFactors;
+        }
+        if (expandedCommonFactors == null || expandedNetwork != network) {
+            expandedCommonFactors = concat(commonFactors, specification.getCommonFactors(network));
+            expandedNetwork = network;
+        }
+        return expandedCommonFactors;
     }
 
     @Override
     public List<SensitivityFactor> getAdditionalFactors(Network network) {
-        return basecaseAdditionalFactors;
+        if (specification == null) {
+            return basecaseAdditionalFactors;
+        }
+        return concat(basecaseAdditionalFactors, specification.getAdditionalFactors(network));
     }
 
     @Override
     public List<SensitivityFactor> getAdditionalFactors(Network network, String contingencyId) {
-        return contingenciesAdditionalParameters.get(contingencyId);
+        if (specification == null) {
+            return contingenciesAdditionalParameters.get(contingencyId);
+        }
+        return concat(getContingencyAdditionalFactors(contingencyId), specification.getAdditionalFactors(network, contingencyId));
+    }
+
+    /**
+     * Number of listed factors, the common ones being counted once. Factors defined by the specification are not counted,
+     * as they are only known once expanded against the network.
+     */
+    @JsonIgnore
+    public long getListedFactorsCount() {
+        long count = (long) commonFactors.size() + basecaseAdditionalFactors.size();
+        for (Contingency contingency : contingencies) {
+            count += getContingencyAdditionalFactors(contingency.getId()).size();
+        }
+        return count;
+    }
+
+    List<SensitivityFactor> getListedCommonFactors() {
+        return commonFactors;
+    }
+
+    List<SensitivityFactor> getListedBasecaseAdditionalFactors() {
+        return basecaseAdditionalFactors;
+    }
+
+    List<SensitivityFactor> getListedAdditionalFactors(String contingencyId) {
+        return getContingencyAdditionalFactors(contingencyId);
+    }
+
+    /**
+     * Splits these inputs into at most {@code partsCount} inputs, each one holding a subset of the contingencies.
+     *
+     * Contingencies are balanced between parts according to their number of factors. Common factors stay
+     * common in each part, and are shared between parts instead of being copied for each contingency.
+     * Base case values of common factors are thus computed by every part, and only kept from the first part
+     * by {@link SensitivityAnalysisResultMerger}, which is also the only part holding base case additional factors.
+     * Within each part, contingencies keep their original order.
+     *
+     * Factors specifications are split the same way. As they are not expanded yet, each of their rules
+     * only weighs as much as a single factor.
+     */
+    public List<InternalSensitivityInputsProvider> partition(int partsCount) {
+        int effectivePartsCount = Math.max(1, Math.min(partsCount, contingencies.size()));
+        List<List<Contingency>> contingenciesByPart = new ArrayList<>();
+        long[] partWeights = new long[effectivePartsCount];
+        for (int i = 0; i < effectivePartsCount; i++) {
+            contingenciesByPart.add(new ArrayList<>());
+        }
+        Arrays.fill(partWeights, commonFactors.size() + (specification != null ? specification.getCommonRules().size() : 0));
+        partWeights[0] += basecaseAdditionalFactors.size();
+        if (specification != null) {
+            partWeights[0] += specification.getBasecaseRules().size();
+        }
+
+        Map<Contingency, Integer> originalIndexes = new IdentityHashMap<>();
+        for (int i = 0; i < contingencies.size(); i++) {
+            originalIndexes.put(contingencies.get(i), i);
+        }
+        List<Contingency> sortedContingencies = contingencies.stream()
+            .sorted(Comparator.comparingLong(this::getWeight).reversed())
+            .collect(Collectors.toList());
+        for (Contingency contingency : sortedContingencies) {
+            int lightestPart = 0;
+            for (int i = 1; i < effectivePartsCount; i++) {
+                if (partWeights[i] < partWeights[lightestPart]) {
+                    lightestPart = i;
+                }
+            }
+            contingenciesByPart.get(lightestPart).add(contingency);
+            partWeights[lightestPart] += getWeight(contingency);
+        }
+
+        List<InternalSensitivityInputsProvider> parts = new ArrayList<>();
+        for (int i = 0; i < effectivePartsCount; i++) {
+            List<Contingency> partContingencies = contingenciesByPart.get(i);
+            partContingencies.sort(Comparator.comparing(originalIndexes::get));
+            List<SensitivityFactor> partBasecaseFactors = i == 0 ? basecaseAdditionalFactors : Collections.emptyList();
+            Map<String, List<SensitivityFactor>> partContingenciesFactors = new HashMap<>();
+            for (Contingency contingency : partContingencies) {
+                partContingenciesFactors.put(contingency.getId(), getContingencyAdditionalFactors(contingency.getId()));
+            }
+            SensitivityFactorsSpecification partSpecification = specification != null ? specification.restrict(partContingencies, i == 0) : null;
+            parts.add(new InternalSensitivityInputsProvider(commonFactors, partBasecaseFactors, partContingenciesFactors, partContingencies, partSpecification));
+        }
+        return parts;
+    }
+
+    private long getWeight(Contingency contingency) {
+        long weight = (long) commonFactors.size() + getContingencyAdditionalFactors(contingency.getId()).size();
+        return specification != null ? weight + specification.getRulesCount(contingency.getId()) : weight;
+    }
+
+    private static List<SensitivityFactor> concat(List<SensitivityFactor> listedFactors, List<SensitivityFactor> expandedFactors) {
+        if (listedFactors.isEmpty()) {
+            return expandedFactors;
+        }
+        List<SensitivityFactor> factors = new ArrayList<>(listedFactors);
+        factors.addAll(expandedFactors);
+        return factors;
+    }
+
+    private List<SensitivityFactor> getContingencyAdditionalFactors(String contingencyId) {
+        return contingenciesAdditionalParameters.getOrDefault(contingencyId, Collections.emptyList());
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class JsonNetworkModifications {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private JsonNetworkModifications() {
+        throw new AssertionError("Utility class should not be implemented");
+    }
+
+    public static byte[] write(NetworkModifications modifications) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(modifications);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static NetworkModifications read(InputStream inputStream) {
+        try {
+            return OBJECT_MAPPER.readValue(inputStream, NetworkModifications.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] writeVariants(Map<String, NetworkModifications> variants) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(variants);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Map<String, NetworkModifications> readVariants(InputStream inputStream) {
+        try {
+            return OBJECT_MAPPER.readValue(inputStream, new TypeReference<LinkedHashMap<String, NetworkModifications>>() { });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
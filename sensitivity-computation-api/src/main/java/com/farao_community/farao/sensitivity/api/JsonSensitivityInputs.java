@@ -1,46 +1,287 @@
 package com.farao_community.farao.sensitivity.api;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.powsybl.commons.PowsyblException;
 import com.powsybl.contingency.Contingency;
 import com.powsybl.contingency.json.ContingencyJsonModule;
 import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.SensitivityFactor;
 import com.powsybl.sensitivity.SensitivityFactorsProvider;
+import com.powsybl.sensitivity.SensitivityFunction;
+import com.powsybl.sensitivity.SensitivityVariable;
+import com.powsybl.sensitivity.factors.BranchFlowPerInjectionIncrease;
+import com.powsybl.sensitivity.factors.BranchFlowPerLinearGlsk;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.BranchIntensityPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.functions.BranchIntensity;
+import com.powsybl.sensitivity.factors.variables.InjectionIncrease;
+import com.powsybl.sensitivity.factors.variables.LinearGlsk;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.UncheckedIOException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.*;
+import java.util.*;
+import java.util.function.Function;
 
+/**
+ * Streaming JSON serialization of sensitivity inputs.
+ *
+ * Functions and variables are interned: each one is written in full at its first use, and then
+ * referenced by its index in order of appearance. Elements of the same type and id are interned together.
+ * Each factor is written as a [function, variable] pair.
+ * Factors specifications are written along with the listed factors, to be expanded by the reader.
+ * Inputs written in the former format, without interning, can still be read.
+ */
 public class JsonSensitivityInputs {
+    private static final String VERSION = "1.0";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new ContingencyJsonModule())
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    private static final ObjectWriter FUNCTION_WRITER = OBJECT_MAPPER.writerFor(SensitivityFunction.class);
+    private static final ObjectWriter VARIABLE_WRITER = OBJECT_MAPPER.writerFor(SensitivityVariable.class);
+    private static final ObjectReader FUNCTION_READER = OBJECT_MAPPER.readerFor(SensitivityFunction.class);
+    private static final ObjectReader VARIABLE_READER = OBJECT_MAPPER.readerFor(SensitivityVariable.class);
+
     private JsonSensitivityInputs() {
         throw new AssertionError("Utility class should not be implemented");
     }
 
     public static byte[] write(SensitivityFactorsProvider provider, Network network, List<Contingency> contingencies) {
-        try {
-            InternalSensitivityInputsProvider internalProvider = new InternalSensitivityInputsProvider(
-                    provider.getCommonFactors(network),
-                    provider.getAdditionalFactors(network),
-                    contingencies.stream().collect(Collectors.toMap(Contingency::getId, co -> provider.getAdditionalFactors(network, co.getId()))),
-                    contingencies
-            );
-            return getObjectMapper().writeValueAsBytes(internalProvider);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(provider, network, contingencies, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public static byte[] write(InternalSensitivityInputsProvider internalProvider) {
+        return write(internalProvider, null, internalProvider.getContingencies());
+    }
+
+    /**
+     * Writes the factors of the provider, evaluated on the network, straight to the output stream,
+     * one contingency at a time. Factors specifications are written as is, without being expanded.
+     */
+    public static void write(SensitivityFactorsProvider provider, Network network, List<Contingency> contingencies, OutputStream outputStream) {
+        if (provider instanceof InternalSensitivityInputsProvider) {
+            InternalSensitivityInputsProvider internalProvider = (InternalSensitivityInputsProvider) provider;
+            write(internalProvider.getListedCommonFactors(), internalProvider.getListedBasecaseAdditionalFactors(), internalProvider::getListedAdditionalFactors,
+                contingencies, internalProvider.getSpecification(), outputStream);
+        } else if (provider instanceof SensitivityFactorsSpecification) {
+            write(Collections.emptyList(), Collections.emptyList(), contingencyId -> Collections.emptyList(),
+                contingencies, (SensitivityFactorsSpecification) provider, outputStream);
+        } else {
+            write(provider.getCommonFactors(network), provider.getAdditionalFactors(network), contingencyId -> provider.getAdditionalFactors(network, contingencyId),
+                contingencies, null, outputStream);
+        }
+    }
+
+    private static void write(List<SensitivityFactor> commonFactors, List<SensitivityFactor> basecaseAdditionalFactors,
+                              Function<String, List<SensitivityFactor>> contingencyAdditionalFactors, List<Contingency> contingencies,
+                              SensitivityFactorsSpecification specification, OutputStream outputStream) {
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(outputStream)) {
+            Dictionary functions = new Dictionary(FUNCTION_WRITER);
+            Dictionary variables = new Dictionary(VARIABLE_WRITER);
+            generator.writeStartObject();
+            generator.writeStringField("version", VERSION);
+            if (specification != null) {
+                generator.writeFieldName("specification");
+                OBJECT_MAPPER.writeValue(generator, specification);
+            }
+            generator.writeFieldName("commonFactors");
+            writeFactors(generator, commonFactors, functions, variables);
+            generator.writeFieldName("basecaseAdditionalFactors");
+            writeFactors(generator, basecaseAdditionalFactors, functions, variables);
+            generator.writeArrayFieldStart("contingencies");
+            for (Contingency contingency : contingencies) {
+                generator.writeStartObject();
+                generator.writeFieldName("contingency");
+                OBJECT_MAPPER.writeValue(generator, contingency);
+                generator.writeFieldName("additionalFactors");
+                writeFactors(generator, contingencyAdditionalFactors.apply(contingency.getId()), functions, variables);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
     public static InternalSensitivityInputsProvider read(InputStream inputStream) {
-        try {
-            return getObjectMapper().readValue(inputStream, InternalSensitivityInputsProvider.class);
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(inputStream)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            expect(parser.nextToken(), JsonToken.FIELD_NAME);
+            if (!"version".equals(parser.getCurrentName())) {
+                return OBJECT_MAPPER.readValue(parser, InternalSensitivityInputsProvider.class);
+            }
+            parser.nextToken();
+            return readIndexed(parser);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
-    private static ObjectMapper getObjectMapper() {
-        return new ObjectMapper().registerModule(new ContingencyJsonModule());
+    private static InternalSensitivityInputsProvider readIndexed(JsonParser parser) throws IOException {
+        FactorsReader factorsReader = new FactorsReader();
+        List<SensitivityFactor> commonFactors = Collections.emptyList();
+        List<SensitivityFactor> basecaseAdditionalFactors = Collections.emptyList();
+        Map<String, List<SensitivityFactor>> contingenciesAdditionalFactors = new HashMap<>();
+        List<Contingency> contingencies = new ArrayList<>();
+        SensitivityFactorsSpecification specification = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "specification":
+                    specification = OBJECT_MAPPER.readValue(parser, SensitivityFactorsSpecification.class);
+                    break;
+                case "commonFactors":
+                    commonFactors = factorsReader.read(parser);
+                    break;
+                case "basecaseAdditionalFactors":
+                    basecaseAdditionalFactors = factorsReader.read(parser);
+                    break;
+                case "contingencies":
+                    expect(parser.currentToken(), JsonToken.START_ARRAY);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        readContingency(parser, factorsReader, contingencies, contingenciesAdditionalFactors);
+                    }
+                    break;
+                default:
+                    throw new PowsyblException(String.format("Unexpected field '%s' in sensitivity inputs", fieldName));
+            }
+        }
+        return new InternalSensitivityInputsProvider(commonFactors, basecaseAdditionalFactors, contingenciesAdditionalFactors, contingencies, specification);
+    }
+
+    private static void readContingency(JsonParser parser, FactorsReader factorsReader, List<Contingency> contingencies,
+                                        Map<String, List<SensitivityFactor>> contingenciesAdditionalFactors) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+        Contingency contingency = null;
+        List<SensitivityFactor> additionalFactors = Collections.emptyList();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if ("contingency".equals(fieldName)) {
+                contingency = OBJECT_MAPPER.readValue(parser, Contingency.class);
+            } else if ("additionalFactors".equals(fieldName)) {
+                additionalFactors = factorsReader.read(parser);
+            } else {
+                throw new PowsyblException(String.format("Unexpected field '%s' in sensitivity inputs contingency", fieldName));
+            }
+        }
+        if (contingency == null) {
+            throw new PowsyblException("Sensitivity inputs contingency without definition");
+        }
+        contingencies.add(contingency);
+        contingenciesAdditionalFactors.put(contingency.getId(), additionalFactors);
+    }
+
+    private static void writeFactors(JsonGenerator generator, List<SensitivityFactor> factors,
+                                     Dictionary functions, Dictionary variables) throws IOException {
+        generator.writeStartArray();
+        for (SensitivityFactor factor : factors) {
+            generator.writeStartArray();
+            functions.write(generator, factor.getFunction(), factor.getFunction().getId());
+            variables.write(generator, factor.getVariable(), factor.getVariable().getId());
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+    }
+
+    private static void expect(JsonToken token, JsonToken expectedToken) {
+        if (token != expectedToken) {
+            throw new PowsyblException(String.format("Unexpected token %s in sensitivity inputs, %s expected", token, expectedToken));
+        }
+    }
+
+    /**
+     * Assigns an index to each distinct element at its first use. Elements are keyed by their type and id,
+     * as factors providers usually create new elements for each factor.
+     */
+    private static final class Dictionary {
+        private final ObjectWriter writer;
+        private final Map<List<Object>, Integer> indexes = new HashMap<>();
+
+        private Dictionary(ObjectWriter writer) {
+            this.writer = writer;
+        }
+
+        private void write(JsonGenerator generator, Object element, String id) throws IOException {
+            List<Object> key = List.of(element.getClass(), id);
+            Integer index = indexes.get(key);
+            if (index != null) {
+                generator.writeNumber(index);
+                return;
+            }
+            indexes.put(key, indexes.size());
+            writer.writeValue(generator, element);
+        }
+    }
+
+    /**
+     * Reads factors written as [function, variable] pairs. Factors are created as they are read and only
+     * share their function and variable instances, so that no index of factors is retained.
+     */
+    private static final class FactorsReader {
+        private final List<SensitivityFunction> functions = new ArrayList<>();
+        private final List<SensitivityVariable> variables = new ArrayList<>();
+
+        private List<SensitivityFactor> read(JsonParser parser) throws IOException {
+            expect(parser.currentToken(), JsonToken.START_ARRAY);
+            List<SensitivityFactor> readFactors = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                expect(parser.currentToken(), JsonToken.START_ARRAY);
+                parser.nextToken();
+                int functionIndex = readElement(parser, functions, FUNCTION_READER);
+                parser.nextToken();
+                int variableIndex = readElement(parser, variables, VARIABLE_READER);
+                expect(parser.nextToken(), JsonToken.END_ARRAY);
+                readFactors.add(createFactor(functions.get(functionIndex), variables.get(variableIndex)));
+            }
+            return readFactors;
+        }
+
+        private static <T> int readElement(JsonParser parser, List<T> elements, ObjectReader reader) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                int index = parser.getIntValue();
+                if (index < 0 || index >= elements.size()) {
+                    throw new PowsyblException(String.format("Unknown sensitivity inputs reference %d", index));
+                }
+                return index;
+            }
+            elements.add(reader.readValue(parser));
+            return elements.size() - 1;
+        }
+    }
+
+    private static SensitivityFactor createFactor(SensitivityFunction function, SensitivityVariable variable) {
+        if (function instanceof BranchFlow) {
+            if (variable instanceof PhaseTapChangerAngle) {
+                return new BranchFlowPerPSTAngle((BranchFlow) function, (PhaseTapChangerAngle) variable);
+            } else if (variable instanceof InjectionIncrease) {
+                return new BranchFlowPerInjectionIncrease((BranchFlow) function, (InjectionIncrease) variable);
+            } else if (variable instanceof LinearGlsk) {
+                return new BranchFlowPerLinearGlsk((BranchFlow) function, (LinearGlsk) variable);
+            }
+        } else if (function instanceof BranchIntensity && variable instanceof PhaseTapChangerAngle) {
+            return new BranchIntensityPerPSTAngle((BranchIntensity) function, (PhaseTapChangerAngle) variable);
+        }
+        return new GenericSensitivityFactor(function, variable);
+    }
+
+    /**
+     * Factor of a function and variable combination with no dedicated factor type.
+     */
+    private static final class GenericSensitivityFactor extends SensitivityFactor<SensitivityFunction, SensitivityVariable> {
+        private GenericSensitivityFactor(SensitivityFunction function, SensitivityVariable variable) {
+            super(function, variable);
+        }
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.powsybl.iidm.network.Connectable;
+import com.powsybl.iidm.network.ConnectableType;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Terminal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Selection of network elements by ids, countries, voltage levels and equipment types.
+ *
+ * Each criterion is ignored when empty, and elements must match all the other ones. An element with
+ * several terminals matches a country or voltage level criterion when any of its terminals does.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class NetworkElementFilter implements Predicate<Connectable<?>> {
+    @JsonProperty("ids")
+    private final Set<String> ids;
+    @JsonProperty("countries")
+    private final Set<Country> countries;
+    @JsonProperty("voltageLevelIds")
+    private final Set<String> voltageLevelIds;
+    @JsonProperty("types")
+    private final Set<ConnectableType> types;
+
+    @JsonCreator
+    public NetworkElementFilter(@JsonProperty("ids") Set<String> ids,
+                                @JsonProperty("countries") Set<Country> countries,
+                                @JsonProperty("voltageLevelIds") Set<String> voltageLevelIds,
+                                @JsonProperty("types") Set<ConnectableType> types) {
+        this.ids = emptyIfNull(ids);
+        this.countries = emptyIfNull(countries);
+        this.voltageLevelIds = emptyIfNull(voltageLevelIds);
+        this.types = emptyIfNull(types);
+    }
+
+    public static NetworkElementFilter all() {
+        return new NetworkElementFilter(null, null, null, null);
+    }
+
+    public Set<String> getIds() {
+        return ids;
+    }
+
+    public Set<Country> getCountries() {
+        return countries;
+    }
+
+    public Set<String> getVoltageLevelIds() {
+        return voltageLevelIds;
+    }
+
+    public Set<ConnectableType> getTypes() {
+        return types;
+    }
+
+    @Override
+    public boolean test(Connectable<?> element) {
+        return (ids.isEmpty() || ids.contains(element.getId()))
+            && (types.isEmpty() || types.contains(element.getType()))
+            && (voltageLevelIds.isEmpty() || element.getTerminals().stream().anyMatch(this::isInVoltageLevels))
+            && (countries.isEmpty() || element.getTerminals().stream().anyMatch(this::isInCountries));
+    }
+
+    private boolean isInVoltageLevels(Terminal terminal) {
+        return voltageLevelIds.contains(terminal.getVoltageLevel().getId());
+    }
+
+    private boolean isInCountries(Terminal terminal) {
+        return terminal.getVoltageLevel().getSubstation().getCountry().filter(countries::contains).isPresent();
+    }
+
+    private static <T> Set<T> emptyIfNull(Set<T> set) {
+        return set != null ? new HashSet<>(set) : Collections.emptySet();
+    }
+}
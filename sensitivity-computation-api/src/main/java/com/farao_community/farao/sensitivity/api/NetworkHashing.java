@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hash shared by client and server to identify serialized networks.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public final class NetworkHashing {
+    private static final String ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private NetworkHashing() {
+        throw new AssertionError("Utility class should not be implemented");
+    }
+
+    public static String hash(byte[] content) {
+        MessageDigest digest = createDigest();
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    public static String hash(InputStream content) {
+        MessageDigest digest = createDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Output stream hashing what is written through it, so that a network can be hashed while being serialized.
+     */
+    public static final class HashingOutputStream extends FilterOutputStream {
+        private final MessageDigest digest = createDigest();
+
+        public HashingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            digest.update((byte) b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            digest.update(bytes, offset, length);
+            out.write(bytes, offset, length);
+        }
+
+        /**
+         * Hash of all the bytes written so far, to be called once the content is fully written.
+         */
+        public String getHash() {
+            return toHex(digest.digest());
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
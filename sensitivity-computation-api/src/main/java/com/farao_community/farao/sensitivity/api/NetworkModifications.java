@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.*;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compact list of state changes to be applied on a base network before running a computation.
+ *
+ * Only variant dependent states are supported: generators active power setpoints, loads active power,
+ * phase tap changers positions and switches states.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class NetworkModifications {
+    @JsonProperty("generatorsTargetP")
+    private final Map<String, Double> generatorsTargetP;
+    @JsonProperty("loadsP0")
+    private final Map<String, Double> loadsP0;
+    @JsonProperty("phaseTapChangersPositions")
+    private final Map<String, Integer> phaseTapChangersPositions;
+    @JsonProperty("switchesOpen")
+    private final Map<String, Boolean> switchesOpen;
+
+    @JsonCreator
+    public NetworkModifications(@JsonProperty("generatorsTargetP") Map<String, Double> generatorsTargetP,
+                                @JsonProperty("loadsP0") Map<String, Double> loadsP0,
+                                @JsonProperty("phaseTapChangersPositions") Map<String, Integer> phaseTapChangersPositions,
+                                @JsonProperty("switchesOpen") Map<String, Boolean> switchesOpen) {
+        this.generatorsTargetP = emptyIfNull(generatorsTargetP);
+        this.loadsP0 = emptyIfNull(loadsP0);
+        this.phaseTapChangersPositions = emptyIfNull(phaseTapChangersPositions);
+        this.switchesOpen = emptyIfNull(switchesOpen);
+    }
+
+    public Map<String, Double> getGeneratorsTargetP() {
+        return generatorsTargetP;
+    }
+
+    public Map<String, Double> getLoadsP0() {
+        return loadsP0;
+    }
+
+    public Map<String, Integer> getPhaseTapChangersPositions() {
+        return phaseTapChangersPositions;
+    }
+
+    public Map<String, Boolean> getSwitchesOpen() {
+        return switchesOpen;
+    }
+
+    /**
+     * Applies the modifications on the working variant of the network.
+     */
+    public void apply(Network network) {
+        generatorsTargetP.forEach((id, targetP) -> getElement(network::getGenerator, id, "Generator").setTargetP(targetP));
+        loadsP0.forEach((id, p0) -> getElement(network::getLoad, id, "Load").setP0(p0));
+        phaseTapChangersPositions.forEach((id, position) -> {
+            PhaseTapChanger phaseTapChanger = getElement(network::getTwoWindingsTransformer, id, "Two windings transformer").getPhaseTapChanger();
+            if (phaseTapChanger == null) {
+                throw new PowsyblException(String.format("Two windings transformer '%s' has no phase tap changer", id));
+            }
+            phaseTapChanger.setTapPosition(position);
+        });
+        switchesOpen.forEach((id, open) -> getElement(network::getSwitch, id, "Switch").setOpen(open));
+    }
+
+    /**
+     * Builds the modifications that turn the base variant of the network into the target variant.
+     *
+     * The working variant of the network is restored afterwards.
+     */
+    public static NetworkModifications between(Network network, String baseVariantId, String targetVariantId) {
+        VariantManager variantManager = network.getVariantManager();
+        String initialVariantId = variantManager.getWorkingVariantId();
+        try {
+            Map<String, Double> generatorsTargetP = new TreeMap<>();
+            Map<String, Double> loadsP0 = new TreeMap<>();
+            Map<String, Integer> phaseTapChangersPositions = new TreeMap<>();
+            Map<String, Boolean> switchesOpen = new TreeMap<>();
+
+            variantManager.setWorkingVariant(baseVariantId);
+            Map<String, Double> baseGeneratorsTargetP = collectDoubles(network.getGenerators(), Generator::getTargetP);
+            Map<String, Double> baseLoadsP0 = collectDoubles(network.getLoads(), Load::getP0);
+            Map<String, Integer> basePhaseTapChangersPositions = collectPhaseTapChangersPositions(network);
+            Map<String, Boolean> baseSwitchesOpen = collectSwitchesOpen(network);
+
+            variantManager.setWorkingVariant(targetVariantId);
+            collectChanges(baseGeneratorsTargetP, collectDoubles(network.getGenerators(), Generator::getTargetP), generatorsTargetP);
+            collectChanges(baseLoadsP0, collectDoubles(network.getLoads(), Load::getP0), loadsP0);
+            collectChanges(basePhaseTapChangersPositions, collectPhaseTapChangersPositions(network), phaseTapChangersPositions);
+            collectChanges(baseSwitchesOpen, collectSwitchesOpen(network), switchesOpen);
+
+            return new NetworkModifications(generatorsTargetP, loadsP0, phaseTapChangersPositions, switchesOpen);
+        } finally {
+            variantManager.setWorkingVariant(initialVariantId);
+        }
+    }
+
+    private static <T extends Identifiable<T>> Map<String, Double> collectDoubles(Iterable<T> elements, ToDoubleFunction<T> getter) {
+        Map<String, Double> values = new TreeMap<>();
+        elements.forEach(element -> values.put(element.getId(), getter.applyAsDouble(element)));
+        return values;
+    }
+
+    private static Map<String, Integer> collectPhaseTapChangersPositions(Network network) {
+        Map<String, Integer> values = new TreeMap<>();
+        network.getTwoWindingsTransformerStream()
+            .filter(twt -> twt.getPhaseTapChanger() != null)
+            .forEach(twt -> values.put(twt.getId(), twt.getPhaseTapChanger().getTapPosition()));
+        return values;
+    }
+
+    private static Map<String, Boolean> collectSwitchesOpen(Network network) {
+        Map<String, Boolean> values = new TreeMap<>();
+        network.getSwitchStream().forEach(sw -> values.put(sw.getId(), sw.isOpen()));
+        return values;
+    }
+
+    private static <T> void collectChanges(Map<String, T> baseValues, Map<String, T> targetValues, Map<String, T> changes) {
+        targetValues.forEach((id, value) -> {
+            if (!Objects.equals(baseValues.get(id), value)) {
+                changes.put(id, value);
+            }
+        });
+    }
+
+    private static <T> T getElement(Function<String, T> getter, String id, String elementType) {
+        T element = getter.apply(id);
+        if (element == null) {
+            throw new PowsyblException(String.format("%s '%s' not found in network", elementType, id));
+        }
+        return element;
+    }
+
+    private static <K, V> Map<K, V> emptyIfNull(Map<K, V> map) {
+        return map != null ? map : new TreeMap<>();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.powsybl.contingency.Contingency;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityValue;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Merges the results of computations run on parts of the same inputs,
+ * as split by {@link InternalSensitivityInputsProvider#partition}.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public final class SensitivityAnalysisResultMerger {
+    private SensitivityAnalysisResultMerger() {
+        throw new AssertionError("Utility class should not be implemented");
+    }
+
+    /**
+     * Merges partial results into one result, with contingency results in the order of the given contingencies.
+     *
+     * Base case values are those of the first partial result, the other parts only computing base case
+     * values of common factors again.
+     */
+    public static SensitivityAnalysisResult merge(List<SensitivityAnalysisResult> partialResults, List<Contingency> contingencies) {
+        if (partialResults.size() == 1) {
+            return partialResults.get(0);
+        }
+        boolean ok = partialResults.stream().allMatch(SensitivityAnalysisResult::isOk);
+        Map<String, String> metrics = new HashMap<>();
+        List<SensitivityValue> basecaseValues = new ArrayList<>(partialResults.get(0).getSensitivityValues());
+        Map<String, List<SensitivityValue>> contingenciesValues = new HashMap<>();
+        for (SensitivityAnalysisResult partialResult : partialResults) {
+            if (partialResult.getMetrics() != null) {
+                metrics.putAll(partialResult.getMetrics());
+            }
+            contingenciesValues.putAll(partialResult.getSensitivityValuesContingencies());
+        }
+        String logs = partialResults.stream()
+            .map(SensitivityAnalysisResult::getLogs)
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining(System.lineSeparator()));
+
+        Map<String, List<SensitivityValue>> orderedContingenciesValues = new LinkedHashMap<>();
+        for (Contingency contingency : contingencies) {
+            List<SensitivityValue> values = contingenciesValues.get(contingency.getId());
+            if (values != null) {
+                orderedContingenciesValues.put(contingency.getId(), values);
+            }
+        }
+        return new SensitivityAnalysisResult(ok, metrics, logs, basecaseValues, orderedContingenciesValues);
+    }
+}
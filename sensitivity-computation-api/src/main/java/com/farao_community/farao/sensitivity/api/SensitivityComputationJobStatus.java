@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Status of a sensitivity computation job, as reported by the server.
+ *
+ * The message holds the error of failed jobs.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SensitivityComputationJobStatus {
+    public enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    @JsonProperty("id")
+    private final String id;
+    @JsonProperty("state")
+    private final State state;
+    @JsonProperty("message")
+    private final String message;
+
+    @JsonCreator
+    public SensitivityComputationJobStatus(@JsonProperty("id") String id,
+                                           @JsonProperty("state") State state,
+                                           @JsonProperty("message") String message) {
+        this.id = Objects.requireNonNull(id);
+        this.state = Objects.requireNonNull(state);
+        this.message = message;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return state.isFinished();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.Connectable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityFunction;
+import com.powsybl.sensitivity.SensitivityVariable;
+import com.powsybl.sensitivity.factors.BranchFlowPerInjectionIncrease;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.BranchIntensityPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.functions.BranchIntensity;
+import com.powsybl.sensitivity.factors.variables.InjectionIncrease;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cross product of a set of functions by a set of variables, both selected in the network by a filter.
+ *
+ * Functions and variables are identified by the id of their network element.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class SensitivityFactorsRule {
+    public enum FunctionType {
+        BRANCH_FLOW,
+        BRANCH_INTENSITY
+    }
+
+    public enum VariableType {
+        PHASE_TAP_CHANGER_ANGLE,
+        INJECTION_INCREASE
+    }
+
+    @JsonProperty("functionType")
+    private final FunctionType functionType;
+    @JsonProperty("functions")
+    private final NetworkElementFilter functions;
+    @JsonProperty("variableType")
+    private final VariableType variableType;
+    @JsonProperty("variables")
+    private final NetworkElementFilter variables;
+
+    @JsonCreator
+    public SensitivityFactorsRule(@JsonProperty("functionType") FunctionType functionType,
+                                  @JsonProperty("functions") NetworkElementFilter functions,
+                                  @JsonProperty("variableType") VariableType variableType,
+                                  @JsonProperty("variables") NetworkElementFilter variables) {
+        this.functionType = Objects.requireNonNull(functionType);
+        this.functions = functions != null ? functions : NetworkElementFilter.all();
+        this.variableType = Objects.requireNonNull(variableType);
+        this.variables = variables != null ? variables : NetworkElementFilter.all();
+        if (functionType == FunctionType.BRANCH_INTENSITY && variableType != VariableType.PHASE_TAP_CHANGER_ANGLE) {
+            throw new PowsyblException("Branch intensity functions are only supported with phase tap changer angle variables");
+        }
+    }
+
+    public FunctionType getFunctionType() {
+        return functionType;
+    }
+
+    public NetworkElementFilter getFunctions() {
+        return functions;
+    }
+
+    public VariableType getVariableType() {
+        return variableType;
+    }
+
+    public NetworkElementFilter getVariables() {
+        return variables;
+    }
+
+    /**
+     * Builds the factors of the rule for the given network, in functions then variables order.
+     * Function and variable instances are shared between factors.
+     */
+    public List<SensitivityFactor> expand(Network network) {
+        List<SensitivityFunction> selectedFunctions = network.getBranchStream()
+            .filter(functions::test)
+            .map(branch -> createFunction(branch.getId()))
+            .collect(Collectors.toList());
+        List<SensitivityVariable> selectedVariables = getVariableCandidates(network)
+            .filter(variables::test)
+            .map(element -> createVariable(element.getId()))
+            .collect(Collectors.toList());
+        List<SensitivityFactor> factors = new ArrayList<>(selectedFunctions.size() * selectedVariables.size());
+        for (SensitivityFunction function : selectedFunctions) {
+            for (SensitivityVariable variable : selectedVariables) {
+                factors.add(createFactor(function, variable));
+            }
+        }
+        return factors;
+    }
+
+    private Stream<? extends Connectable<?>> getVariableCandidates(Network network) {
+        if (variableType == VariableType.PHASE_TAP_CHANGER_ANGLE) {
+            return network.getTwoWindingsTransformerStream().filter(twt -> twt.getPhaseTapChanger() != null);
+        }
+        return Stream.concat(network.getGeneratorStream(), network.getLoadStream());
+    }
+
+    private SensitivityFunction createFunction(String branchId) {
+        if (functionType == FunctionType.BRANCH_INTENSITY) {
+            return new BranchIntensity(branchId, branchId, branchId);
+        }
+        return new BranchFlow(branchId, branchId, branchId);
+    }
+
+    private SensitivityVariable createVariable(String elementId) {
+        if (variableType == VariableType.PHASE_TAP_CHANGER_ANGLE) {
+            return new PhaseTapChangerAngle(elementId, elementId, elementId);
+        }
+        return new InjectionIncrease(elementId, elementId, elementId);
+    }
+
+    private static SensitivityFactor createFactor(SensitivityFunction function, SensitivityVariable variable) {
+        if (function instanceof BranchIntensity) {
+            return new BranchIntensityPerPSTAngle((BranchIntensity) function, (PhaseTapChangerAngle) variable);
+        } else if (variable instanceof PhaseTapChangerAngle) {
+            return new BranchFlowPerPSTAngle((BranchFlow) function, (PhaseTapChangerAngle) variable);
+        }
+        return new BranchFlowPerInjectionIncrease((BranchFlow) function, (InjectionIncrease) variable);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityFactorsProvider;
+
+import java.util.*;
+
+/**
+ * Factors provider defined by rules, instead of factors, which are only expanded against the network
+ * when factors are requested.
+ *
+ * Common rules apply to the base case and every contingency, base case rules to the base case only,
+ * and contingency rules add factors to their contingency only. Common rules are expanded once per network,
+ * and their factors shared by all the specifications restricted from this one.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class SensitivityFactorsSpecification implements SensitivityFactorsProvider {
+    @JsonProperty("commonRules")
+    private final List<SensitivityFactorsRule> commonRules;
+    @JsonProperty("basecaseRules")
+    private final List<SensitivityFactorsRule> basecaseRules;
+    @JsonProperty("contingenciesRules")
+    private final Map<String, List<SensitivityFactorsRule>> contingenciesRules;
+    private final CommonFactors commonFactors;
+
+    @JsonCreator
+    public SensitivityFactorsSpecification(@JsonProperty("commonRules") List<SensitivityFactorsRule> commonRules,
+                                           @JsonProperty("basecaseRules") List<SensitivityFactorsRule> basecaseRules,
+                                           @JsonProperty("contingenciesRules") Map<String, List<SensitivityFactorsRule>> contingenciesRules) {
+        this(commonRules != null ? commonRules : Collections.emptyList(), basecaseRules, contingenciesRules, new CommonFactors());
+    }
+
+    private SensitivityFactorsSpecification(List<SensitivityFactorsRule> commonRules, List<SensitivityFactorsRule> basecaseRules,
+                                            Map<String, List<SensitivityFactorsRule>> contingenciesRules, CommonFactors commonFactors) {
+        this.commonRules = commonRules;
+        this.basecaseRules = basecaseRules != null ? basecaseRules : Collections.emptyList();
+        this.contingenciesRules = contingenciesRules != null ? contingenciesRules : Collections.emptyMap();
+        this.commonFactors = commonFactors;
+    }
+
+    public List<SensitivityFactorsRule> getCommonRules() {
+        return commonRules;
+    }
+
+    public List<SensitivityFactorsRule> getBasecaseRules() {
+        return basecaseRules;
+    }
+
+    public Map<String, List<SensitivityFactorsRule>> getContingenciesRules() {
+        return contingenciesRules;
+    }
+
+    /**
+     * Number of rules applying to the given contingency.
+     */
+    public int getRulesCount(String contingencyId) {
+        return commonRules.size() + contingenciesRules.getOrDefault(contingencyId, Collections.emptyList()).size();
+    }
+
+    @Override
+    public List<SensitivityFactor> getCommonFactors(Network network) {
+        return commonFactors.get(commonRules, network);
+    }
+
+    @Override
+    public List<SensitivityFactor> getAdditionalFactors(Network network) {
+        return expand(basecaseRules, network);
+    }
+
+    @Override
+    public List<SensitivityFactor> getAdditionalFactors(Network network, String contingencyId) {
+        return expand(contingenciesRules.getOrDefault(contingencyId, Collections.emptyList()), network);
+    }
+
+    /**
+     * Restricts the specification to the given contingencies, with base case rules only when requested.
+     * As for {@link InternalSensitivityInputsProvider#partition}, common rules stay common, and their
+     * expanded factors are shared with this specification.
+     */
+    SensitivityFactorsSpecification restrict(List<Contingency> contingencies, boolean withBasecase) {
+        Map<String, List<SensitivityFactorsRule>> partContingenciesRules = new HashMap<>();
+        for (Contingency contingency : contingencies) {
+            List<SensitivityFactorsRule> rules = contingenciesRules.get(contingency.getId());
+            if (rules != null) {
+                partContingenciesRules.put(contingency.getId(), rules);
+            }
+        }
+        return new SensitivityFactorsSpecification(commonRules, withBasecase ? basecaseRules : Collections.emptyList(),
+            partContingenciesRules, commonFactors);
+    }
+
+    private static List<SensitivityFactor> expand(List<SensitivityFactorsRule> rules, Network network) {
+        if (rules.size() == 1) {
+            return rules.get(0).expand(network);
+        }
+        List<SensitivityFactor> factors = new ArrayList<>();
+        rules.forEach(rule -> factors.addAll(rule.expand(network)));
+        return factors;
+    }
+
+    /**
+     * Factors of the common rules, expanded against the last network they were requested for.
+     * Expansion does not depend on the network variant.
+     */
+    private static final class CommonFactors {
+        private Network network;
+        private List<SensitivityFactor> factors;
+
+        private synchronized List<SensitivityFactor> get(List<SensitivityFactorsRule> rules, Network network) {
+            if (factors == null || this.network != network) {
+                factors = expand(rules, network);
+                this.network = network;
+            }
+            return factors;
+        }
+    }
+}
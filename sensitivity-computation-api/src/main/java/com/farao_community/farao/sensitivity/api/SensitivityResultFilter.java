@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Selection of the sensitivity values to be returned by the server.
+ *
+ * Values are filtered independently for the base case and each contingency: only values of the selected
+ * contingencies and functions are kept, then values whose absolute value is below the threshold are dropped,
+ * and finally only the top K values by absolute value are kept, per contingency or per function of a contingency.
+ * Kept values stay in their original order. Each criterion is ignored when not set.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SensitivityResultFilter {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public enum TopKScope {
+        CONTINGENCY,
+        FUNCTION
+    }
+
+    @JsonProperty("threshold")
+    private final Double threshold;
+    @JsonProperty("topK")
+    private final Integer topK;
+    @JsonProperty("topKScope")
+    private final TopKScope topKScope;
+    @JsonProperty("contingencyIds")
+    private final Set<String> contingencyIds;
+    @JsonProperty("functionIds")
+    private final Set<String> functionIds;
+
+    @JsonCreator
+    public SensitivityResultFilter(@JsonProperty("threshold") Double threshold,
+                                   @JsonProperty("topK") Integer topK,
+                                   @JsonProperty("topKScope") TopKScope topKScope,
+                                   @JsonProperty("contingencyIds") Set<String> contingencyIds,
+                                   @JsonProperty("functionIds") Set<String> functionIds) {
+        this.threshold = threshold;
+        this.topK = topK;
+        this.topKScope = topKScope != null ? topKScope : TopKScope.CONTINGENCY;
+        this.contingencyIds = contingencyIds != null ? new HashSet<>(contingencyIds) : Collections.emptySet();
+        this.functionIds = functionIds != null ? new HashSet<>(functionIds) : Collections.emptySet();
+    }
+
+    public static SensitivityResultFilter none() {
+        return new SensitivityResultFilter(null, null, null, null, null);
+    }
+
+    @JsonIgnore
+    public Optional<Double> getThreshold() {
+        return Optional.ofNullable(threshold);
+    }
+
+    @JsonIgnore
+    public Optional<Integer> getTopK() {
+        return Optional.ofNullable(topK);
+    }
+
+    public TopKScope getTopKScope() {
+        return topKScope;
+    }
+
+    public Set<String> getContingencyIds() {
+        return contingencyIds;
+    }
+
+    public Set<String> getFunctionIds() {
+        return functionIds;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return threshold == null && topK == null && contingencyIds.isEmpty() && functionIds.isEmpty();
+    }
+
+    public SensitivityAnalysisResult apply(SensitivityAnalysisResult result) {
+        if (isEmpty()) {
+            return result;
+        }
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        result.getSensitivityValuesContingencies().forEach((contingencyId, values) -> {
+            if (contingencyIds.isEmpty() || contingencyIds.contains(contingencyId)) {
+                contingenciesValues.put(contingencyId, filter(values));
+            }
+        });
+        return new SensitivityAnalysisResult(result.isOk(), result.getMetrics(), result.getLogs(), filter(result.getSensitivityValues()), contingenciesValues);
+    }
+
+    public String toJson() {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(this);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static SensitivityResultFilter fromJson(String json) {
+        try {
+            return OBJECT_MAPPER.readValue(json, SensitivityResultFilter.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<SensitivityValue> filter(Collection<SensitivityValue> values) {
+        List<SensitivityValue> kept = new ArrayList<>(values.size());
+        for (SensitivityValue value : values) {
+            if ((functionIds.isEmpty() || functionIds.contains(value.getFactor().getFunction().getId()))
+                && (threshold == null || Math.abs(value.getValue()) >= threshold)) {
+                kept.add(value);
+            }
+        }
+        if (topK == null || kept.size() <= topK) {
+            return kept;
+        }
+        if (topKScope == TopKScope.CONTINGENCY) {
+            return keepTopK(kept, Collections.singletonList(kept));
+        }
+        Map<String, List<SensitivityValue>> valuesByFunction = new HashMap<>();
+        kept.forEach(value -> valuesByFunction.computeIfAbsent(value.getFactor().getFunction().getId(), id -> new ArrayList<>()).add(value));
+        return keepTopK(kept, valuesByFunction.values());
+    }
+
+    /**
+     * Keeps the top K values of each group, in the order of the given values.
+     */
+    private List<SensitivityValue> keepTopK(List<SensitivityValue> values, Collection<List<SensitivityValue>> groups) {
+        Set<SensitivityValue> topValues = Collections.newSetFromMap(new IdentityHashMap<>());
+        Comparator<SensitivityValue> byMagnitude = Comparator.comparingDouble(SensitivityResultFilter::getMagnitude).reversed();
+        for (List<SensitivityValue> group : groups) {
+            if (group.size() <= topK) {
+                topValues.addAll(group);
+            } else {
+                group.stream().sorted(byMagnitude).limit(topK).forEach(topValues::add);
+            }
+        }
+        List<SensitivityValue> kept = new ArrayList<>(Math.min(values.size(), topValues.size()));
+        for (SensitivityValue value : values) {
+            if (topValues.contains(value)) {
+                kept.add(value);
+            }
+        }
+        return kept;
+    }
+
+    private static double getMagnitude(SensitivityValue value) {
+        return Double.isNaN(value.getValue()) ? -1 : Math.abs(value.getValue());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityValue;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class BinarySensitivityAnalysisResultTest {
+    @Test
+    void checkThatResultIsRestoredAfterRoundTrip() {
+        SensitivityFactor factor = new BranchFlowPerPSTAngle(new BranchFlow("branch", "Branch", "branch"), new PhaseTapChangerAngle("pst", "PST", "pst"));
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        contingenciesValues.put("co2", List.of(new SensitivityValue(factor, 4., 5., 6.)));
+        contingenciesValues.put("co1", List.of(new SensitivityValue(factor, 7., Double.NaN, 9.)));
+        SensitivityAnalysisResult result = new SensitivityAnalysisResult(true, Map.of("metric", "value"), "logs",
+            List.of(new SensitivityValue(factor, 1., 2., 3.)), contingenciesValues);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinarySensitivityAnalysisResult.write(result, outputStream);
+        SensitivityAnalysisResult restored = BinarySensitivityAnalysisResult.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertTrue(restored.isOk());
+        assertEquals("value", restored.getMetrics().get("metric"));
+        assertEquals("logs", restored.getLogs());
+        SensitivityValue basecaseValue = restored.getSensitivityValues().iterator().next();
+        assertEquals("branch", basecaseValue.getFactor().getFunction().getId());
+        assertEquals("pst", basecaseValue.getFactor().getVariable().getId());
+        assertEquals(1., basecaseValue.getValue());
+        assertEquals(3., basecaseValue.getVariableReference());
+        assertEquals(List.of("co2", "co1"), new ArrayList<>(restored.getSensitivityValuesContingencies().keySet()));
+        assertSame(basecaseValue.getFactor(), restored.getSensitivityValuesContingencies().get("co2").get(0).getFactor());
+        assertTrue(Double.isNaN(restored.getSensitivityValuesContingencies().get("co1").get(0).getFunctionReference()));
+    }
+
+    @Test
+    void checkThatEqualFactorsAreWrittenOnce() {
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            contingenciesValues.put("co" + i, List.of(new SensitivityValue(createFactor("branch", "pst"), i, 0., 0.), new SensitivityValue(createFactor("branch", "pst2"), i, 0., 0.)));
+        }
+        SensitivityAnalysisResult result = new SensitivityAnalysisResult(true, Collections.emptyMap(), "",
+            List.of(new SensitivityValue(createFactor("branch", "pst"), 0., 0., 0.)), contingenciesValues);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinarySensitivityAnalysisResult.write(result, outputStream);
+        SensitivityAnalysisResult restored = BinarySensitivityAnalysisResult.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        SensitivityFactor basecaseFactor = restored.getSensitivityValues().iterator().next().getFactor();
+        List<SensitivityValue> co99Values = restored.getSensitivityValuesContingencies().get("co99");
+        assertSame(basecaseFactor, co99Values.get(0).getFactor());
+        assertEquals("pst2", co99Values.get(1).getFactor().getVariable().getId());
+        assertNotSame(basecaseFactor, co99Values.get(1).getFactor());
+        assertEquals(99., co99Values.get(1).getValue());
+        assertTrue(outputStream.size() < 100 * 2 * 100, outputStream.size() + " bytes written");
+    }
+
+    private static SensitivityFactor createFactor(String branchId, String pstId) {
+        return new BranchFlowPerPSTAngle(new BranchFlow(branchId, branchId, branchId), new PhaseTapChangerAngle(pstId, pstId, pstId));
+    }
+}
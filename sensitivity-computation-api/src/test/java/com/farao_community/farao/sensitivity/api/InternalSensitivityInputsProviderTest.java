@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.powsybl.contingency.BranchContingency;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityValue;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class InternalSensitivityInputsProviderTest {
+    private static SensitivityFactor factor(String branchId) {
+        return new BranchFlowPerPSTAngle(new BranchFlow(branchId, branchId, branchId), new PhaseTapChangerAngle("pst", "pst", "pst"));
+    }
+
+    private static InternalSensitivityInputsProvider createInputs() {
+        List<Contingency> contingencies = new ArrayList<>();
+        Map<String, List<SensitivityFactor>> contingenciesFactors = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            String id = "co" + i;
+            contingencies.add(new Contingency(id, new BranchContingency(id)));
+            contingenciesFactors.put(id, i == 0 ? List.of(factor("extra1"), factor("extra2"), factor("extra3")) : Collections.emptyList());
+        }
+        return new InternalSensitivityInputsProvider(List.of(factor("common")), List.of(factor("basecase")), contingenciesFactors, contingencies);
+    }
+
+    @Test
+    void checkThatPartitionKeepsEveryFactorOnce() {
+        InternalSensitivityInputsProvider inputs = createInputs();
+        List<InternalSensitivityInputsProvider> parts = inputs.partition(3);
+
+        assertEquals(3, parts.size());
+        assertEquals(1, parts.get(0).getAdditionalFactors(null).size());
+        for (int i = 1; i < parts.size(); i++) {
+            assertTrue(parts.get(i).getAdditionalFactors(null).isEmpty());
+        }
+        List<String> partitionedContingencies = parts.stream()
+            .flatMap(part -> part.getContingencies().stream())
+            .map(Contingency::getId)
+            .sorted()
+            .collect(Collectors.toList());
+        assertEquals(List.of("co0", "co1", "co2", "co3", "co4"), partitionedContingencies);
+        assertEquals(5, inputs.getListedFactorsCount());
+        assertEquals(inputs.getListedFactorsCount() + parts.size() - 1, parts.stream().mapToLong(InternalSensitivityInputsProvider::getListedFactorsCount).sum());
+        for (InternalSensitivityInputsProvider part : parts) {
+            assertSame(inputs.getCommonFactors(null), part.getCommonFactors(null));
+            for (Contingency contingency : part.getContingencies()) {
+                int expectedFactors = contingency.getId().equals("co0") ? 3 : 0;
+                assertEquals(expectedFactors, part.getAdditionalFactors(null, contingency.getId()).size());
+            }
+        }
+    }
+
+    @Test
+    void checkThatPartitionIsBoundedByContingenciesCount() {
+        assertEquals(5, createInputs().partition(10).size());
+        assertEquals(1, createInputs().partition(0).size());
+    }
+
+    @Test
+    void checkThatMergedResultsFollowContingenciesOrder() {
+        InternalSensitivityInputsProvider inputs = createInputs();
+        SensitivityValue basecaseValue = new SensitivityValue(factor("basecase"), 1., 2., 3.);
+        SensitivityAnalysisResult firstPart = new SensitivityAnalysisResult(true, Collections.emptyMap(), "first", List.of(basecaseValue),
+            Map.of("co3", List.of(new SensitivityValue(factor("common"), 4., 5., 6.))));
+        SensitivityAnalysisResult secondPart = new SensitivityAnalysisResult(true, Collections.emptyMap(), "second",
+            List.of(new SensitivityValue(factor("basecase"), 1., 2., 3.)),
+            Map.of("co1", List.of(new SensitivityValue(factor("common"), 7., 8., 9.))));
+
+        SensitivityAnalysisResult merged = SensitivityAnalysisResultMerger.merge(List.of(firstPart, secondPart), inputs.getContingencies());
+
+        assertTrue(merged.isOk());
+        assertEquals(1, merged.getSensitivityValues().size());
+        assertEquals(List.of("co1", "co3"), new ArrayList<>(merged.getSensitivityValuesContingencies().keySet()));
+        assertEquals(7., merged.getSensitivityValuesContingencies().get("co1").get(0).getValue());
+    }
+}
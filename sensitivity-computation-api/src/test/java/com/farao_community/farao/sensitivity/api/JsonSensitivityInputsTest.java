@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.powsybl.contingency.BranchContingency;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.contingency.json.ContingencyJsonModule;
+import com.powsybl.iidm.network.ConnectableType;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityFactorsProvider;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class JsonSensitivityInputsTest {
+    private static final List<Contingency> CONTINGENCIES = List.of(new Contingency("co1", new BranchContingency("co1")), new Contingency("co2", new BranchContingency("co2")));
+
+    private static List<SensitivityFactor> createFactors(String... branchIds) {
+        List<SensitivityFactor> factors = new ArrayList<>();
+        for (String branchId : branchIds) {
+            factors.add(new BranchFlowPerPSTAngle(new BranchFlow(branchId, branchId, branchId), new PhaseTapChangerAngle("pst", "pst", "pst")));
+        }
+        return factors;
+    }
+
+    private static final SensitivityFactorsProvider PROVIDER = new SensitivityFactorsProvider() {
+        @Override
+        public List<SensitivityFactor> getCommonFactors(Network network) {
+            return createFactors("branch1", "branch2");
+        }
+
+        @Override
+        public List<SensitivityFactor> getAdditionalFactors(Network network, String contingencyId) {
+            return contingencyId.equals("co2") ? createFactors("branch1", "branch3") : Collections.emptyList();
+        }
+    };
+
+    @Test
+    void checkThatInputsAreRestoredWithSharedElements() {
+        InternalSensitivityInputsProvider inputs = JsonSensitivityInputs.read(new ByteArrayInputStream(JsonSensitivityInputs.write(PROVIDER, null, CONTINGENCIES)));
+
+        assertEquals(List.of("co1", "co2"), List.of(inputs.getContingencies().get(0).getId(), inputs.getContingencies().get(1).getId()));
+        assertEquals(2, inputs.getCommonFactors(null).size());
+        assertTrue(inputs.getAdditionalFactors(null).isEmpty());
+        assertTrue(inputs.getAdditionalFactors(null, "co1").isEmpty());
+        List<SensitivityFactor> co2Factors = inputs.getAdditionalFactors(null, "co2");
+        assertEquals("branch3", co2Factors.get(1).getFunction().getId());
+        assertTrue(co2Factors.get(1) instanceof BranchFlowPerPSTAngle);
+        assertSame(inputs.getCommonFactors(null).get(0).getFunction(), co2Factors.get(0).getFunction());
+        assertSame(inputs.getCommonFactors(null).get(0).getVariable(), co2Factors.get(1).getVariable());
+    }
+
+    @Test
+    void checkThatManyElementsAreWrittenOnceWhateverTheirOrder() throws Exception {
+        List<SensitivityFactor> factors = new ArrayList<>();
+        for (String pstId : List.of("pst1", "pst2", "pst3")) {
+            for (int i = 0; i < 10_001; i++) {
+                String branchId = "branch" + i;
+                factors.add(new BranchFlowPerPSTAngle(new BranchFlow(branchId, branchId, branchId), new PhaseTapChangerAngle(pstId, pstId, pstId)));
+            }
+        }
+        SensitivityFactorsProvider provider = new SensitivityFactorsProvider() {
+            @Override
+            public List<SensitivityFactor> getCommonFactors(Network network) {
+                return factors;
+            }
+
+            @Override
+            public List<SensitivityFactor> getAdditionalFactors(Network network, String contingencyId) {
+                return factors.subList(0, 10_001);
+            }
+        };
+        Map<String, List<SensitivityFactor>> contingenciesFactors = Map.of("co1", factors.subList(0, 10_001), "co2", factors.subList(0, 10_001));
+        byte[] formerBytes = new ObjectMapper().registerModule(new ContingencyJsonModule())
+            .writeValueAsBytes(new InternalSensitivityInputsProvider(factors, Collections.emptyList(), contingenciesFactors, CONTINGENCIES));
+
+        byte[] bytes = JsonSensitivityInputs.write(provider, null, CONTINGENCIES);
+
+        assertTrue(bytes.length < formerBytes.length / 4, bytes.length + " bytes written, " + formerBytes.length + " in the former format");
+        InternalSensitivityInputsProvider inputs = JsonSensitivityInputs.read(new ByteArrayInputStream(bytes));
+        assertEquals(factors.size(), inputs.getCommonFactors(null).size());
+        List<SensitivityFactor> co2Factors = inputs.getAdditionalFactors(null, "co2");
+        assertEquals("branch10000", co2Factors.get(10_000).getFunction().getId());
+        assertSame(inputs.getCommonFactors(null).get(20_002).getFunction(), co2Factors.get(0).getFunction());
+    }
+
+    @Test
+    void checkThatFormerFormatIsStillRead() throws Exception {
+        Map<String, List<SensitivityFactor>> contingenciesFactors = new HashMap<>();
+        contingenciesFactors.put("co1", Collections.emptyList());
+        contingenciesFactors.put("co2", createFactors("branch3"));
+        InternalSensitivityInputsProvider formerInputs = new InternalSensitivityInputsProvider(createFactors("branch1"), Collections.emptyList(), contingenciesFactors, CONTINGENCIES);
+        byte[] formerBytes = new ObjectMapper().registerModule(new ContingencyJsonModule()).writeValueAsBytes(formerInputs);
+
+        InternalSensitivityInputsProvider inputs = JsonSensitivityInputs.read(new ByteArrayInputStream(formerBytes));
+
+        assertEquals(2, inputs.getContingencies().size());
+        assertEquals("branch1", inputs.getCommonFactors(null).get(0).getFunction().getId());
+        assertEquals("branch3", inputs.getAdditionalFactors(null, "co2").get(0).getFunction().getId());
+    }
+
+    @Test
+    void checkThatSpecificationIsWrittenWithoutBeingExpanded() {
+        SensitivityFactorsRule rule = new SensitivityFactorsRule(SensitivityFactorsRule.FunctionType.BRANCH_FLOW,
+            new NetworkElementFilter(null, Set.of(Country.FR), null, Set.of(ConnectableType.LINE)),
+            SensitivityFactorsRule.VariableType.PHASE_TAP_CHANGER_ANGLE, null);
+        SensitivityFactorsSpecification specification = new SensitivityFactorsSpecification(List.of(rule), null, Map.of("co2", List.of(rule)));
+
+        InternalSensitivityInputsProvider inputs = JsonSensitivityInputs.read(new ByteArrayInputStream(JsonSensitivityInputs.write(specification, null, CONTINGENCIES)));
+
+        assertEquals(2, inputs.getContingencies().size());
+        SensitivityFactorsRule readRule = inputs.getSpecification().getCommonRules().get(0);
+        assertEquals(SensitivityFactorsRule.VariableType.PHASE_TAP_CHANGER_ANGLE, readRule.getVariableType());
+        assertEquals(Set.of(Country.FR), readRule.getFunctions().getCountries());
+        assertTrue(readRule.getVariables().getIds().isEmpty());
+        assertEquals(2, inputs.getSpecification().getRulesCount("co2"));
+
+        List<InternalSensitivityInputsProvider> parts = inputs.partition(2);
+        assertEquals(1, parts.get(0).getSpecification().getCommonRules().size());
+        assertEquals(1, parts.get(1).getSpecification().getCommonRules().size());
+        assertTrue(parts.get(1).getSpecification().getBasecaseRules().isEmpty());
+        assertFalse(parts.get(1).getSpecification().getContingenciesRules().containsKey("co1"));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.powsybl.contingency.BranchContingency;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityValue;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class SensitivityAnalysisResultMergerTest {
+    private static SensitivityValue createValue(String branchId, double value) {
+        SensitivityFactor factor = new BranchFlowPerPSTAngle(new BranchFlow(branchId, branchId, branchId), new PhaseTapChangerAngle("pst", "pst", "pst"));
+        return new SensitivityValue(factor, value, 0., 0.);
+    }
+
+    private static SensitivityAnalysisResult createResult(boolean ok, Map<String, String> metrics, String logs, List<SensitivityValue> basecaseValues, String... contingencyIds) {
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        for (String contingencyId : contingencyIds) {
+            contingenciesValues.put(contingencyId, List.of(createValue(contingencyId, 1.)));
+        }
+        return new SensitivityAnalysisResult(ok, metrics, logs, basecaseValues, contingenciesValues);
+    }
+
+    private static List<Contingency> createContingencies(String... contingencyIds) {
+        return Arrays.stream(contingencyIds)
+            .map(contingencyId -> new Contingency(contingencyId, new BranchContingency(contingencyId)))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void checkThatPartialResultsAreMerged() {
+        SensitivityAnalysisResult firstPart = createResult(true, Map.of("first", "1"), "first logs",
+            List.of(createValue("common", 1.), createValue("basecase", 2.)), "co1", "co4");
+        SensitivityAnalysisResult secondPart = createResult(true, Map.of("second", "2"), "second logs",
+            List.of(createValue("common", 1.)), "co3", "co2");
+
+        SensitivityAnalysisResult result = SensitivityAnalysisResultMerger.merge(List.of(firstPart, secondPart), createContingencies("co1", "co2", "co3", "co4"));
+
+        assertTrue(result.isOk());
+        assertEquals(List.of("common", "basecase"), result.getSensitivityValues().stream()
+            .map(value -> value.getFactor().getFunction().getId())
+            .collect(Collectors.toList()));
+        assertEquals(List.of("co1", "co2", "co3", "co4"), new ArrayList<>(result.getSensitivityValuesContingencies().keySet()));
+        assertEquals("co2", result.getSensitivityValuesContingencies().get("co2").get(0).getFactor().getFunction().getId());
+        assertEquals(Map.of("first", "1", "second", "2"), result.getMetrics());
+        assertEquals("first logs" + System.lineSeparator() + "second logs", result.getLogs());
+    }
+
+    @Test
+    void checkThatMergedResultIsNotOkIfAnyPartIsNot() {
+        SensitivityAnalysisResult firstPart = createResult(true, Collections.emptyMap(), "", Collections.emptyList(), "co1");
+        SensitivityAnalysisResult secondPart = createResult(false, Collections.emptyMap(), "failed", Collections.emptyList(), "co2");
+
+        SensitivityAnalysisResult result = SensitivityAnalysisResultMerger.merge(List.of(firstPart, secondPart), createContingencies("co1", "co2"));
+
+        assertFalse(result.isOk());
+        assertTrue(result.getMetrics().isEmpty());
+        assertEquals(System.lineSeparator() + "failed", result.getLogs());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.powsybl.contingency.BranchContingency;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.import_.Importers;
+import com.powsybl.iidm.network.*;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.factors.BranchFlowPerInjectionIncrease;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.InjectionIncrease;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class SensitivityFactorsSpecificationTest {
+    private static final SensitivityFactorsRule FRENCH_LINES_PER_FRENCH_GENERATORS = new SensitivityFactorsRule(SensitivityFactorsRule.FunctionType.BRANCH_FLOW,
+        new NetworkElementFilter(null, Set.of(Country.FR), null, Set.of(ConnectableType.LINE)),
+        SensitivityFactorsRule.VariableType.INJECTION_INCREASE, new NetworkElementFilter(null, Set.of(Country.FR), null, Set.of(ConnectableType.GENERATOR)));
+    private static final SensitivityFactorsRule LINES_PER_PSTS = new SensitivityFactorsRule(SensitivityFactorsRule.FunctionType.BRANCH_FLOW,
+        new NetworkElementFilter(null, null, null, Set.of(ConnectableType.LINE)), SensitivityFactorsRule.VariableType.PHASE_TAP_CHANGER_ANGLE, null);
+
+    private static Network network;
+
+    @BeforeAll
+    static void importNetwork() {
+        network = Importers.loadNetwork("20170215_0830_2d4_uc1.uct", SensitivityFactorsSpecificationTest.class.getResourceAsStream("/20170215_0830_2d4_uc1.uct"));
+    }
+
+    private static boolean isInCountry(Connectable<?> connectable, Country country) {
+        return connectable.getTerminals().stream()
+            .anyMatch(terminal -> terminal.getVoltageLevel().getSubstation().getCountry().orElse(null) == country);
+    }
+
+    private static List<SensitivityFactor> createFrenchLinesPerFrenchGeneratorsFactors() {
+        List<SensitivityFactor> factors = new ArrayList<>();
+        for (Line line : network.getLines()) {
+            if (isInCountry(line, Country.FR)) {
+                for (Generator generator : network.getGenerators()) {
+                    if (isInCountry(generator, Country.FR)) {
+                        factors.add(new BranchFlowPerInjectionIncrease(new BranchFlow(line.getId(), line.getId(), line.getId()),
+                            new InjectionIncrease(generator.getId(), generator.getId(), generator.getId())));
+                    }
+                }
+            }
+        }
+        return factors;
+    }
+
+    private static List<SensitivityFactor> createLinesPerPstsFactors() {
+        List<SensitivityFactor> factors = new ArrayList<>();
+        for (Line line : network.getLines()) {
+            for (TwoWindingsTransformer twt : network.getTwoWindingsTransformers()) {
+                if (twt.getPhaseTapChanger() != null) {
+                    factors.add(new BranchFlowPerPSTAngle(new BranchFlow(line.getId(), line.getId(), line.getId()),
+                        new PhaseTapChangerAngle(twt.getId(), twt.getId(), twt.getId())));
+                }
+            }
+        }
+        return factors;
+    }
+
+    private static List<String> toStrings(List<SensitivityFactor> factors) {
+        return factors.stream()
+            .map(factor -> factor.getClass().getSimpleName() + " " + factor.getFunction().getId() + " " + factor.getVariable().getId())
+            .collect(Collectors.toList());
+    }
+
+    private static List<Contingency> createContingencies() {
+        return network.getLineStream()
+            .map(line -> new Contingency(line.getId(), new BranchContingency(line.getId())))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void checkThatRulesExpandToTheExplicitFactors() {
+        List<SensitivityFactor> factors = createFrenchLinesPerFrenchGeneratorsFactors();
+        List<SensitivityFactor> pstFactors = createLinesPerPstsFactors();
+
+        assertFalse(factors.isEmpty());
+        assertFalse(pstFactors.isEmpty());
+        assertEquals(toStrings(factors), toStrings(FRENCH_LINES_PER_FRENCH_GENERATORS.expand(network)));
+        assertEquals(toStrings(pstFactors), toStrings(LINES_PER_PSTS.expand(network)));
+    }
+
+    @Test
+    void checkThatPartitionedSpecificationMatchesTheExplicitFactors() {
+        List<Contingency> contingencies = createContingencies();
+        String contingencyId = contingencies.get(0).getId();
+        SensitivityFactorsSpecification specification = new SensitivityFactorsSpecification(List.of(FRENCH_LINES_PER_FRENCH_GENERATORS),
+            List.of(LINES_PER_PSTS), Map.of(contingencyId, List.of(LINES_PER_PSTS)));
+        Map<String, List<SensitivityFactor>> contingenciesFactors = new HashMap<>();
+        contingencies.forEach(contingency -> contingenciesFactors.put(contingency.getId(), Collections.emptyList()));
+        contingenciesFactors.put(contingencyId, createLinesPerPstsFactors());
+        InternalSensitivityInputsProvider explicitInputs = new InternalSensitivityInputsProvider(createFrenchLinesPerFrenchGeneratorsFactors(),
+            createLinesPerPstsFactors(), contingenciesFactors, contingencies);
+
+        List<InternalSensitivityInputsProvider> parts = InternalSensitivityInputsProvider.of(specification, network, contingencies).partition(3);
+
+        assertEquals(3, parts.size());
+        assertEquals(toStrings(explicitInputs.getAdditionalFactors(network)), toStrings(parts.get(0).getAdditionalFactors(network)));
+        Set<String> partsContingencyIds = new HashSet<>();
+        for (InternalSensitivityInputsProvider part : parts) {
+            assertEquals(1, part.getSpecification().getCommonRules().size());
+            assertSame(parts.get(0).getCommonFactors(network), part.getCommonFactors(network));
+            assertEquals(toStrings(explicitInputs.getCommonFactors(network)), toStrings(part.getCommonFactors(network)));
+            if (part != parts.get(0)) {
+                assertTrue(part.getAdditionalFactors(network).isEmpty());
+            }
+            for (Contingency contingency : part.getContingencies()) {
+                partsContingencyIds.add(contingency.getId());
+                assertEquals(toStrings(explicitInputs.getAdditionalFactors(network, contingency.getId())),
+                    toStrings(part.getAdditionalFactors(network, contingency.getId())));
+            }
+        }
+        assertEquals(contingencies.size(), partsContingencyIds.size());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.api;
+
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityValue;
+import com.powsybl.sensitivity.factors.BranchFlowPerPSTAngle;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.PhaseTapChangerAngle;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class SensitivityResultFilterTest {
+    @Test
+    void checkThatOnlySelectedValuesAreKept() {
+        SensitivityFactor factor1 = new BranchFlowPerPSTAngle(new BranchFlow("branch1", "Branch 1", "branch1"), new PhaseTapChangerAngle("pst", "PST", "pst"));
+        SensitivityFactor factor2 = new BranchFlowPerPSTAngle(new BranchFlow("branch2", "Branch 2", "branch2"), new PhaseTapChangerAngle("pst", "PST", "pst"));
+        SensitivityFactor factor3 = new BranchFlowPerPSTAngle(new BranchFlow("branch3", "Branch 3", "branch3"), new PhaseTapChangerAngle("pst", "PST", "pst"));
+        List<SensitivityValue> values = List.of(
+            new SensitivityValue(factor1, 0.1, 0., 0.),
+            new SensitivityValue(factor2, -3., 0., 0.),
+            new SensitivityValue(factor3, 2., 0., 0.));
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        contingenciesValues.put("co1", values);
+        contingenciesValues.put("co2", values);
+        SensitivityAnalysisResult result = new SensitivityAnalysisResult(true, Collections.emptyMap(), "", values, contingenciesValues);
+
+        SensitivityResultFilter filter = SensitivityResultFilter.fromJson("{\"threshold\":0.5,\"topK\":1,\"contingencyIds\":[\"co1\"]}");
+        SensitivityAnalysisResult filtered = filter.apply(result);
+
+        assertEquals(1, filtered.getSensitivityValues().size());
+        assertEquals(-3., filtered.getSensitivityValues().iterator().next().getValue());
+        assertEquals(List.of("co1"), new ArrayList<>(filtered.getSensitivityValuesContingencies().keySet()));
+        assertEquals(1, filtered.getSensitivityValuesContingencies().get("co1").size());
+        assertSame(result, SensitivityResultFilter.none().apply(result));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.benchmarks;
+
+import com.powsybl.contingency.BranchContingency;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.import_.Importers;
+import com.powsybl.iidm.network.*;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityFactorsProvider;
+import com.powsybl.sensitivity.SensitivityValue;
+import com.powsybl.sensitivity.factors.BranchFlowPerInjectionIncrease;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.InjectionIncrease;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Deterministic networks, factors and results used by the benchmarks.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public final class BenchmarkData {
+    public static final String UCTE_CASE = "20170215_0830_2d4_uc1.uct";
+
+    private BenchmarkData() {
+        throw new AssertionError("Utility class should not be implemented");
+    }
+
+    public static Network loadUcteCase() {
+        return Importers.loadNetwork(UCTE_CASE, BenchmarkData.class.getResourceAsStream("/" + UCTE_CASE));
+    }
+
+    /**
+     * Square meshed grid of {@code size * size} buses, each one with a generator and a load,
+     * and linked to its right and bottom neighbours.
+     */
+    public static Network createGrid(int size) {
+        Network network = NetworkFactory.findDefault().createNetwork("grid-" + size, "benchmark");
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                String id = busId(row, column);
+                VoltageLevel voltageLevel = network.newSubstation()
+                    .setId("S" + id)
+                    .setCountry(Country.FR)
+                    .add()
+                    .newVoltageLevel()
+                    .setId("VL" + id)
+                    .setNominalV(400)
+                    .setTopologyKind(TopologyKind.BUS_BREAKER)
+                    .add();
+                voltageLevel.getBusBreakerView().newBus().setId(id).add();
+                voltageLevel.newGenerator()
+                    .setId("G" + id)
+                    .setBus(id)
+                    .setConnectableBus(id)
+                    .setMinP(0)
+                    .setMaxP(1000)
+                    .setTargetP(100)
+                    .setTargetQ(0)
+                    .setVoltageRegulatorOn(false)
+                    .add();
+                voltageLevel.newLoad()
+                    .setId("L" + id)
+                    .setBus(id)
+                    .setConnectableBus(id)
+                    .setP0(100)
+                    .setQ0(0)
+                    .add();
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                if (column + 1 < size) {
+                    addLine(network, busId(row, column), busId(row, column + 1));
+                }
+                if (row + 1 < size) {
+                    addLine(network, busId(row, column), busId(row + 1, column));
+                }
+            }
+        }
+        return network;
+    }
+
+    /**
+     * Factors of the flows on all the branches of the network per injection increase on all its loads.
+     */
+    public static SensitivityFactorsProvider createFactorsProvider() {
+        return network -> createFactors(
+            network.getBranchStream().map(Identifiable::getId).collect(Collectors.toList()),
+            network.getLoadStream().map(Identifiable::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Cross product of {@code functionCount} branch flows by enough injections to get {@code factorCount} factors.
+     */
+    public static List<SensitivityFactor> createFactors(int factorCount, int functionCount) {
+        List<String> branchIds = new ArrayList<>(functionCount);
+        for (int i = 0; i < functionCount; i++) {
+            branchIds.add("branch" + i);
+        }
+        int variableCount = Math.max(1, factorCount / functionCount);
+        List<String> injectionIds = new ArrayList<>(variableCount);
+        for (int i = 0; i < variableCount; i++) {
+            injectionIds.add("injection" + i);
+        }
+        return createFactors(branchIds, injectionIds);
+    }
+
+    public static List<Contingency> createContingencies(Network network, int contingencyCount) {
+        return network.getBranchStream()
+            .limit(contingencyCount)
+            .map(branch -> new Contingency(branch.getId(), new BranchContingency(branch.getId())))
+            .collect(Collectors.toList());
+    }
+
+    public static List<Contingency> createContingencies(int contingencyCount) {
+        List<Contingency> contingencies = new ArrayList<>(contingencyCount);
+        for (int i = 0; i < contingencyCount; i++) {
+            contingencies.add(new Contingency("contingency" + i, new BranchContingency("branch" + i)));
+        }
+        return contingencies;
+    }
+
+    /**
+     * Result holding the given factors on the base case and on each contingency, with values depending
+     * only on the factor index and the state.
+     */
+    public static SensitivityAnalysisResult createResult(List<SensitivityFactor> factors, List<Contingency> contingencies) {
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        for (int i = 0; i < contingencies.size(); i++) {
+            contingenciesValues.put(contingencies.get(i).getId(), createValues(factors, i + 1));
+        }
+        return new SensitivityAnalysisResult(true, Collections.emptyMap(), "", createValues(factors, 0), contingenciesValues);
+    }
+
+    public static List<SensitivityValue> createValues(List<SensitivityFactor> factors, int state) {
+        List<SensitivityValue> values = new ArrayList<>(factors.size());
+        for (int i = 0; i < factors.size(); i++) {
+            double value = ((i * 31L + state * 17L) % 2000) / 1000. - 1.;
+            values.add(new SensitivityValue(factors.get(i), value, 100. + state, 10. + i % 100));
+        }
+        return values;
+    }
+
+    private static List<SensitivityFactor> createFactors(List<String> branchIds, List<String> injectionIds) {
+        List<InjectionIncrease> variables = injectionIds.stream()
+            .map(id -> new InjectionIncrease(id, id, id))
+            .collect(Collectors.toList());
+        List<SensitivityFactor> factors = new ArrayList<>(branchIds.size() * variables.size());
+        for (String branchId : branchIds) {
+            BranchFlow function = new BranchFlow(branchId, branchId, branchId);
+            for (InjectionIncrease variable : variables) {
+                factors.add(new BranchFlowPerInjectionIncrease(function, variable));
+            }
+        }
+        return factors;
+    }
+
+    private static void addLine(Network network, String busId1, String busId2) {
+        network.newLine()
+            .setId(busId1 + "-" + busId2)
+            .setVoltageLevel1("VL" + busId1)
+            .setBus1(busId1)
+            .setConnectableBus1(busId1)
+            .setVoltageLevel2("VL" + busId2)
+            .setBus2(busId2)
+            .setConnectableBus2(busId2)
+            .setR(1)
+            .setX(10)
+            .setG1(0)
+            .setB1(0)
+            .setG2(0)
+            .setB2(0)
+            .add();
+    }
+
+    private static String busId(int row, int column) {
+        return "B" + row + "_" + column;
+    }
+}
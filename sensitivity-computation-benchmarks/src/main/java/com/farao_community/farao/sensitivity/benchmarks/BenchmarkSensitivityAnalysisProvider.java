@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.benchmarks;
+
+import com.google.auto.service.AutoService;
+import com.powsybl.computation.ComputationManager;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sensitivity analysis returning deterministic values instantly, used by the in-process server
+ * in place of Hades2 so that benchmarks only measure the computation service overhead.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@AutoService(SensitivityAnalysisProvider.class)
+public class BenchmarkSensitivityAnalysisProvider implements SensitivityAnalysisProvider {
+    public static final String NAME = "BenchmarkSensitivityAnalysis";
+
+    @Override
+    public CompletableFuture<SensitivityAnalysisResult> run(Network network, String workingVariantId, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters, ComputationManager computationManager) {
+        List<SensitivityFactor> commonFactors = factorsProvider.getCommonFactors(network);
+        List<SensitivityFactor> basecaseFactors = new ArrayList<>(commonFactors);
+        basecaseFactors.addAll(factorsProvider.getAdditionalFactors(network));
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        for (int i = 0; i < contingencies.size(); i++) {
+            String contingencyId = contingencies.get(i).getId();
+            List<SensitivityFactor> contingencyFactors = new ArrayList<>(commonFactors);
+            contingencyFactors.addAll(factorsProvider.getAdditionalFactors(network, contingencyId));
+            contingenciesValues.put(contingencyId, BenchmarkData.createValues(contingencyFactors, i + 1));
+        }
+        return CompletableFuture.completedFuture(new SensitivityAnalysisResult(true, Collections.emptyMap(), "",
+            BenchmarkData.createValues(basecaseFactors, 0), contingenciesValues));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getVersion() {
+        return "1.0.0";
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.benchmarks;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.xml.NetworkXml;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Network serialization done by the client before each upload, and network import done by the server.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NetworkBenchmark {
+    @Param({"uct", "grid-10", "grid-100"})
+    private String network;
+
+    private Network loadedNetwork;
+    private byte[] xiidm;
+
+    @Setup
+    public void setUp() {
+        loadedNetwork = network.equals("uct")
+            ? BenchmarkData.loadUcteCase()
+            : BenchmarkData.createGrid(Integer.parseInt(network.substring("grid-".length())));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        NetworkXml.write(loadedNetwork, outputStream);
+        xiidm = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public void writeXml() {
+        NetworkXml.write(loadedNetwork, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public Network readXml() {
+        return NetworkXml.read(new ByteArrayInputStream(xiidm));
+    }
+}
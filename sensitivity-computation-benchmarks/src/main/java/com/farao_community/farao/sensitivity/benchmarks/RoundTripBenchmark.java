@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.benchmarks;
+
+import com.farao_community.farao.sensitivity.api.SensitivityResultFilter;
+import com.farao_community.farao.sensitivity.client.SensitivityComputationClient;
+import com.farao_community.farao.sensitivity.client.SensitivityComputationClientConfig;
+import com.farao_community.farao.sensitivity.server.SensitivityComputationApplication;
+import com.powsybl.commons.config.InMemoryPlatformConfig;
+import com.powsybl.commons.config.MapModuleConfig;
+import com.powsybl.commons.config.PlatformConfig;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.SensitivityAnalysisParameters;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactorsProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end computation on the UCTE case, from the client call to the parsed result, against an in-process
+ * server running {@link BenchmarkSensitivityAnalysisProvider}. Only the service overhead is measured, for both
+ * the synchronous and the asynchronous job endpoints.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RoundTripBenchmark {
+    private static final int CONTINGENCY_COUNT = 100;
+
+    @Param({"false", "true"})
+    private boolean asyncJobs;
+
+    private ConfigurableApplicationContext context;
+    private Path jobsDirectory;
+    private SensitivityComputationClient client;
+    private Network network;
+    private SensitivityFactorsProvider factorsProvider;
+    private List<Contingency> contingencies;
+    private SensitivityAnalysisParameters parameters;
+
+    @Setup
+    public void setUp() throws IOException {
+        InMemoryPlatformConfig platformConfig = new InMemoryPlatformConfig(FileSystems.getDefault());
+        platformConfig.createModuleConfig("sensitivity-analysis")
+            .setStringProperty("default-impl-name", BenchmarkSensitivityAnalysisProvider.NAME);
+        PlatformConfig.setDefaultConfig(platformConfig);
+
+        jobsDirectory = Files.createTempDirectory("sensi-benchmark-jobs");
+        context = SpringApplication.run(SensitivityComputationApplication.class,
+            "--server.port=0",
+            "--sensitivity-computation.jobs.directory=" + jobsDirectory,
+            "--logging.level.root=WARN");
+        String port = context.getEnvironment().getProperty("local.server.port");
+
+        MapModuleConfig clientConfig = platformConfig.createModuleConfig("sensitivity-computation-client");
+        clientConfig.setStringProperty("base-url", "http://localhost:" + port);
+        clientConfig.setStringProperty("async-jobs-enabled", Boolean.toString(asyncJobs));
+        client = new SensitivityComputationClient(SensitivityComputationClientConfig.fromPlatformConfig(platformConfig));
+
+        network = BenchmarkData.loadUcteCase();
+        factorsProvider = BenchmarkData.createFactorsProvider();
+        contingencies = BenchmarkData.createContingencies(network, CONTINGENCY_COUNT);
+        parameters = new SensitivityAnalysisParameters();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(jobsDirectory);
+    }
+
+    @Benchmark
+    public SensitivityAnalysisResult run() {
+        return client.run(network, network.getVariantManager().getWorkingVariantId(), factorsProvider, contingencies, parameters, SensitivityResultFilter.none()).join();
+    }
+}
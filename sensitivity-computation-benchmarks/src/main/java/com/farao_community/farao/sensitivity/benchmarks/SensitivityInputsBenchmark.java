@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.benchmarks;
+
+import com.farao_community.farao.sensitivity.api.InternalSensitivityInputsProvider;
+import com.farao_community.farao.sensitivity.api.JsonSensitivityInputs;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityFactorsProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factors and contingencies serialization, from 10k to 10M factors.
+ * Biggest sizes need a large heap, hence the forked JVM options.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SensitivityInputsBenchmark {
+    private static final int FUNCTION_COUNT = 1000;
+    private static final int CONTINGENCY_COUNT = 1000;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int factorCount;
+
+    private SensitivityFactorsProvider factorsProvider;
+    private List<Contingency> contingencies;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        List<SensitivityFactor> factors = BenchmarkData.createFactors(factorCount, FUNCTION_COUNT);
+        factorsProvider = network -> factors;
+        contingencies = BenchmarkData.createContingencies(CONTINGENCY_COUNT);
+        json = JsonSensitivityInputs.write(factorsProvider, null, contingencies);
+    }
+
+    @Benchmark
+    public void write() {
+        JsonSensitivityInputs.write(factorsProvider, null, contingencies, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public InternalSensitivityInputsProvider read() {
+        return JsonSensitivityInputs.read(new ByteArrayInputStream(json));
+    }
+}
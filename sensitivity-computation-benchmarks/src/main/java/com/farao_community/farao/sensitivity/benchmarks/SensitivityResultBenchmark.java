@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.benchmarks;
+
+import com.farao_community.farao.sensitivity.api.BinarySensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.converter.SensitivityAnalysisResultExporters;
+import com.powsybl.sensitivity.json.SensitivityAnalysisResultJsonSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result export done by the server and result import done by the client, in both JSON and binary formats.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SensitivityResultBenchmark {
+    private static final int FUNCTION_COUNT = 100;
+    private static final int CONTINGENCY_COUNT = 100;
+
+    @Param({"100", "1000", "10000"})
+    private int factorCount;
+
+    private SensitivityAnalysisResult result;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        result = BenchmarkData.createResult(BenchmarkData.createFactors(factorCount, FUNCTION_COUNT), BenchmarkData.createContingencies(CONTINGENCY_COUNT));
+        ByteArrayOutputStream jsonStream = new ByteArrayOutputStream();
+        writeJson(result, jsonStream);
+        json = jsonStream.toByteArray();
+        ByteArrayOutputStream binaryStream = new ByteArrayOutputStream();
+        BinarySensitivityAnalysisResult.write(result, binaryStream);
+        binary = binaryStream.toByteArray();
+    }
+
+    @Benchmark
+    public void writeJson() {
+        writeJson(result, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public SensitivityAnalysisResult readJson() throws IOException {
+        return SensitivityAnalysisResultJsonSerializer.read(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void writeBinary() {
+        BinarySensitivityAnalysisResult.write(result, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public SensitivityAnalysisResult readBinary() {
+        return BinarySensitivityAnalysisResult.read(new ByteArrayInputStream(binary));
+    }
+
+    private static void writeJson(SensitivityAnalysisResult result, OutputStream outputStream) {
+        try (Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+            SensitivityAnalysisResultExporters.export(result, writer, "JSON");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -6,8 +6,17 @@
  */
 package com.farao_community.farao.sensitivity.client;
 
+import com.farao_community.farao.sensitivity.api.BatchResultEntry;
+import com.farao_community.farao.sensitivity.api.BinarySensitivityAnalysisResult;
+import com.farao_community.farao.sensitivity.api.InternalSensitivityInputsProvider;
+import com.farao_community.farao.sensitivity.api.JsonNetworkModifications;
 import com.farao_community.farao.sensitivity.api.JsonSensitivityInputs;
+import com.farao_community.farao.sensitivity.api.NetworkModifications;
+import com.farao_community.farao.sensitivity.api.SensitivityAnalysisResultMerger;
+import com.farao_community.farao.sensitivity.api.SensitivityComputationJobStatus;
+import com.farao_community.farao.sensitivity.api.SensitivityResultFilter;
 import com.google.auto.service.AutoService;
+import com.powsybl.commons.PowsyblException;
 import com.powsybl.computation.ComputationManager;
 import com.powsybl.contingency.Contingency;
 import com.powsybl.iidm.network.Network;
@@ -15,9 +24,13 @@ import com.powsybl.iidm.xml.NetworkXml;
 import com.powsybl.sensitivity.*;
 import com.powsybl.sensitivity.json.JsonSensitivityAnalysisParameters;
 import com.powsybl.sensitivity.json.SensitivityAnalysisResultJsonSerializer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpEntity;
@@ -25,23 +38,46 @@ import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.http.client.HttpClient;
-import reactor.netty.tcp.TcpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
  */
 @AutoService(SensitivityAnalysisProvider.class)
 public class SensitivityComputationClient implements SensitivityAnalysisProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensitivityComputationClient.class);
+    private static final MediaType BINARY_RESULT_TYPE = MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE);
+    private static final int MAX_NETWORK_RETRIES = 5;
+    private static final String PHASE_TIMER = "sensitivity.client.phase";
+    private static final String SERIALIZATION_PHASE = "serialization";
+    private static final String UPLOAD_PHASE = "upload";
+    private static final String WAIT_PHASE = "wait";
+    private static final String DOWNLOAD_PHASE = "download";
+    private static final String PARSE_PHASE = "parse";
+
     private final SensitivityComputationClientConfig config;
+    private final WebClient webClient;
 
     public SensitivityComputationClient() {
         this(SensitivityComputationClientConfig.fromPropertyFile());
@@ -49,29 +85,136 @@ public class SensitivityComputationClient implements SensitivityAnalysisProvider
 
     public SensitivityComputationClient(SensitivityComputationClientConfig config) {
         this.config = config;
+        this.webClient = createWebClient(config);
     }
 
+    /**
+     * Runs the computation on the configured servers.
+     *
+     * When several servers are configured, contingencies are split into one shard per server, balanced
+     * according to their number of factors. Each shard holds a single copy of the common factors, so that
+     * sharding only adds one copy of them per extra server to the uploaded inputs. Shards are computed in parallel, a shard failing on a server
+     * being retried on the next ones, and partial results are merged back into a single result.
+     */
     @Override
     public CompletableFuture<SensitivityAnalysisResult> run(Network network, String workingVariantId, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters, ComputationManager computationManager) {
-        TcpClient timeoutClient = TcpClient.create()
-            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getTimeOutInSeconds()*1000)
-            .doOnConnected(
-                c -> c.addHandlerLast(new ReadTimeoutHandler(config.getTimeOutInSeconds()*1000))
-                    .addHandlerLast(new WriteTimeoutHandler(config.getTimeOutInSeconds()*1000)));
-
-        WebClient webClient = WebClient.builder()
-            .clientConnector(new ReactorClientHttpConnector(HttpClient.from(timeoutClient)))
-            .build();
+        return run(network, workingVariantId, factorsProvider, contingencies, sensiParameters, config.getResultFilter());
+    }
 
-        //WebClient webClient = WebClient.create();
-        Flux<DataBuffer> resultData = webClient.post()
-                .uri(getServerUri())
-                .bodyValue(createBody(network, workingVariantId, factorsProvider, contingencies, sensiParameters))
+    /**
+     * Runs the computation on the configured servers, which only send back the values selected by the given filter.
+     */
+    public CompletableFuture<SensitivityAnalysisResult> run(Network network, String workingVariantId, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters, SensitivityResultFilter resultFilter) {
+        long serializationStartTime = System.nanoTime();
+        List<String> baseUrls = config.getBaseUrls();
+        byte[] parametersBytes = getParametersBytes(sensiParameters);
+        SerializedRequestPart networkPart = writeNetwork(network, workingVariantId);
+        List<SerializedRequestPart> inputsParts = new ArrayList<>();
+        try {
+            if (baseUrls.size() == 1) {
+                inputsParts.add(writeInputs(factorsProvider, network, contingencies));
+            } else {
+                for (InternalSensitivityInputsProvider shard : InternalSensitivityInputsProvider.of(factorsProvider, network, contingencies).partition(baseUrls.size())) {
+                    inputsParts.add(writeInputs(shard, null, shard.getContingencies()));
+                }
+                LOGGER.info("Sensitivity computation split into {} shards", inputsParts.size());
+            }
+        } catch (RuntimeException e) {
+            closeAll(networkPart, inputsParts);
+            throw e;
+        }
+        getPhaseTimer(SERIALIZATION_PHASE).record(System.nanoTime() - serializationStartTime, TimeUnit.NANOSECONDS);
+
+        Mono<SensitivityAnalysisResult> result;
+        if (baseUrls.size() == 1) {
+            result = runOnServer(baseUrls.get(0), networkPart, inputsParts.get(0), parametersBytes, resultFilter);
+        } else {
+            result = Flux.range(0, inputsParts.size())
+                    .flatMapSequential(shardIndex -> runShard(shardIndex, 0, networkPart, inputsParts.get(shardIndex), parametersBytes, resultFilter))
+                    .collectList()
+                    .map(partialResults -> SensitivityAnalysisResultMerger.merge(partialResults, contingencies));
+        }
+        return result.doFinally(signal -> closeAll(networkPart, inputsParts)).toFuture();
+    }
+
+    /**
+     * Uploads the given variant of the network into the primary server cache, unless it is already cached.
+     *
+     * @return the hash to be used to reference the network in subsequent computations
+     */
+    public String uploadNetwork(Network network, String variantId) {
+        try (SerializedRequestPart networkPart = writeNetwork(network, variantId)) {
+            if (Boolean.TRUE.equals(isNetworkCached(config.getBaseUrl(), networkPart.getHash()).block())) {
+                return networkPart.getHash();
+            }
+            MultipartBodyBuilder builder = new MultipartBodyBuilder();
+            addNetworkFile(builder, networkPart);
+            return webClient.post()
+                    .uri(getNetworksUri(config.getBaseUrl()))
+                    .bodyValue(builder.build())
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(Duration.ofMillis(config.getTimeOutInSeconds()*1000))
+                    .block();
+        }
+    }
+
+    /**
+     * Runs a sensitivity computation on a network previously uploaded with {@link #uploadNetwork} on the primary server,
+     * after applying the given modifications on a new variant of it.
+     *
+     * Only the modifications are sent to the server. The local network is only used to evaluate the factors provider.
+     */
+    public CompletableFuture<SensitivityAnalysisResult> run(String networkHash, NetworkModifications modifications, Network network, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters) {
+        long serializationStartTime = System.nanoTime();
+        byte[] modificationsBytes = JsonNetworkModifications.write(modifications);
+        byte[] parametersBytes = getParametersBytes(sensiParameters);
+        SerializedRequestPart inputsPart = writeInputs(factorsProvider, network, contingencies);
+        MultiValueMap<String, HttpEntity<?>> body = createBody(null, networkHash, modificationsBytes, inputsPart, parametersBytes, config.getResultFilter());
+        getPhaseTimer(SERIALIZATION_PHASE).record(System.nanoTime() - serializationStartTime, TimeUnit.NANOSECONDS);
+        return submitComputation(config.getBaseUrl(), body)
+                .doFinally(signal -> inputsPart.close())
+                .toFuture();
+    }
+
+    /**
+     * Runs one sensitivity computation per variant on a network previously uploaded with {@link #uploadNetwork},
+     * each variant being defined by modifications of the uploaded network.
+     *
+     * Inputs and parameters are sent once and shared by all variants, which are computed concurrently by the server.
+     * A variant failing does not fail the batch: its entry holds the error instead of a result.
+     *
+     * @return the result or error entries indexed by variant id
+     */
+    public CompletableFuture<Map<String, BatchResultEntry>> runBatch(String networkHash, Map<String, NetworkModifications> variants, Network network, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters) {
+        SerializedRequestPart inputsPart = writeInputs(factorsProvider, network, contingencies);
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("networkHash", networkHash, MediaType.TEXT_PLAIN);
+        builder.part("variantsFile", JsonNetworkModifications.writeVariants(variants), MediaType.APPLICATION_JSON).filename("variants.json");
+        addInputsFile(builder, inputsPart);
+        builder.part("parametersFile", getParametersBytes(sensiParameters), MediaType.APPLICATION_JSON).filename("parameters.json");
+        addResultFilter(builder, config.getResultFilter());
+
+        return webClient.post()
+                .uri(getBatchUri(config.getBaseUrl()))
+                .bodyValue(builder.build())
                 .retrieve()
-                .bodyToFlux(DataBuffer.class)
-                .timeout(Duration.ofMillis(config.getTimeOutInSeconds()*1000));
+                .bodyToFlux(String.class)
+                .timeout(Duration.ofMillis(config.getTimeOutInSeconds()*1000))
+                .publishOn(Schedulers.boundedElastic())
+                .map(BatchResultEntry::readLine)
+                .collectMap(BatchResultEntry::getVariantId, entry -> entry, LinkedHashMap::new)
+                .doFinally(signal -> inputsPart.close())
+                .toFuture();
+    }
 
-        return CompletableFuture.completedFuture(parseResults(resultData));
+    /**
+     * Waits for a job previously submitted on the given server, and downloads its result.
+     *
+     * Job ids are logged on submission, so that the result of a job submitted before a client restart can be retrieved.
+     */
+    public CompletableFuture<SensitivityAnalysisResult> awaitJob(String baseUrl, String jobId) {
+        return waitForJob(baseUrl, jobId).toFuture();
     }
 
     @Override
@@ -84,39 +227,295 @@ public class SensitivityComputationClient implements SensitivityAnalysisProvider
         return "1.0.0";
     }
 
-    private SensitivityAnalysisResult parseResults(Flux<DataBuffer> resultData) {
-        try {
-            Reader reader = new InputStreamReader(DataBufferUtils.join(resultData).block().asInputStream());
-            return SensitivityAnalysisResultJsonSerializer.read(reader);
+    /**
+     * Creates the web client shared by all the computations run by this client, so that connections
+     * to the servers are pooled and kept alive between computations.
+     */
+    private static WebClient createWebClient(SensitivityComputationClientConfig config) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("sensi-computation-client")
+            .maxConnections(config.getMaxConnections())
+            .pendingAcquireTimeout(Duration.ofSeconds(config.getTimeOutInSeconds()))
+            .maxIdleTime(Duration.ofSeconds(config.getMaxIdleTimeInSeconds()))
+            .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .keepAlive(config.isKeepAlive())
+            .tcpConfiguration(tcpClient -> tcpClient
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getTimeOutInSeconds()*1000)
+                .doOnConnected(
+                    c -> c.addHandlerLast(new ReadTimeoutHandler(config.getTimeOutInSeconds()))
+                        .addHandlerLast(new WriteTimeoutHandler(config.getTimeOutInSeconds()))));
+
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(-1))
+            .build();
+    }
+
+    /**
+     * Runs a shard on the server with the same index, or on the next servers if it fails.
+     * Requests rejected as invalid by a server are not retried.
+     */
+    private Mono<SensitivityAnalysisResult> runShard(int shardIndex, int attempt, SerializedRequestPart networkPart, SerializedRequestPart inputsPart, byte[] parametersBytes, SensitivityResultFilter resultFilter) {
+        List<String> baseUrls = config.getBaseUrls();
+        String baseUrl = baseUrls.get((shardIndex + attempt) % baseUrls.size());
+        Mono<SensitivityAnalysisResult> result = runOnServer(baseUrl, networkPart, inputsPart, parametersBytes, resultFilter);
+        if (attempt + 1 >= baseUrls.size()) {
+            return result;
+        }
+        return result.onErrorResume(e -> !isClientError(e), e -> {
+            LOGGER.warn("Sensitivity computation shard {} failed on server '{}', retrying on next server", shardIndex, baseUrl, e);
+            return runShard(shardIndex, attempt + 1, networkPart, inputsPart, parametersBytes, resultFilter);
+        });
+    }
+
+    private Mono<SensitivityAnalysisResult> runOnServer(String baseUrl, SerializedRequestPart networkPart, SerializedRequestPart inputsPart, byte[] parametersBytes, SensitivityResultFilter resultFilter) {
+        String networkHash = networkPart.getHash();
+        Mono<SensitivityAnalysisResult> fullUpload = Mono.defer(() -> submitComputation(baseUrl, createBody(networkPart, networkHash, null, inputsPart, parametersBytes, resultFilter)));
+        if (!config.isNetworkCacheEnabled()) {
+            return fullUpload;
+        }
+        // The network may be evicted from server cache in the meantime, in which case it gets uploaded
+        return isNetworkCached(baseUrl, networkHash)
+                .flatMap(cached -> cached
+                        ? submitComputation(baseUrl, createBody(null, networkHash, null, inputsPart, parametersBytes, resultFilter))
+                            .onErrorResume(WebClientResponseException.NotFound.class, e -> fullUpload)
+                        : fullUpload);
+    }
+
+    /**
+     * Results are decoded according to their content type, as servers not supporting the binary format answer in JSON.
+     */
+    private SensitivityAnalysisResult parseResults(DataBuffer resultData, MediaType resultType) {
+        return getPhaseTimer(PARSE_PHASE).record(() -> parseResultsData(resultData, resultType));
+    }
+
+    private SensitivityAnalysisResult parseResultsData(DataBuffer resultData, MediaType resultType) {
+        try (InputStream inputStream = resultData.asInputStream(true)) {
+            if (BINARY_RESULT_TYPE.equalsTypeAndSubtype(resultType)) {
+                return BinarySensitivityAnalysisResult.read(inputStream);
+            }
+            return SensitivityAnalysisResultJsonSerializer.read(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
-    private URI getServerUri() {
-        return URI.create(config.getBaseUrl())
-                .resolve("./api/v1/sensitivity-computation");
+    /**
+     * Phase timers are registered in the Micrometer global registry, which applications can bind to their own registries.
+     */
+    private static Timer getPhaseTimer(String phase) {
+        return Timer.builder(PHASE_TIMER)
+                .description("Time spent in each phase of sensitivity computations run by the client")
+                .tag("phase", phase)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static <T> Mono<T> timed(Mono<T> mono, String phase) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return mono.doOnSuccess(value -> getPhaseTimer(phase).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof WebClientResponseException && ((WebClientResponseException) e).getStatusCode().is4xxClientError();
+    }
+
+    private Mono<SensitivityAnalysisResult> submitComputation(String baseUrl, MultiValueMap<String, HttpEntity<?>> body) {
+        if (config.isAsyncJobsEnabled()) {
+            return postJob(baseUrl, body).flatMap(jobId -> waitForJob(baseUrl, jobId));
+        }
+        return postComputation(baseUrl, body);
+    }
+
+    private Mono<SensitivityAnalysisResult> postComputation(String baseUrl, MultiValueMap<String, HttpEntity<?>> body) {
+        return webClient.post()
+                .uri(getServerUri(baseUrl))
+                .accept(BINARY_RESULT_TYPE, MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .transform(exchange -> timed(exchange, WAIT_PHASE))
+                .flatMap(this::readResult)
+                .timeout(Duration.ofMillis(config.getTimeOutInSeconds()*1000));
+    }
+
+    private Mono<String> postJob(String baseUrl, MultiValueMap<String, HttpEntity<?>> body) {
+        return webClient.post()
+                .uri(getJobsUri(baseUrl))
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(SensitivityComputationJobStatus.class)
+                .transform(submission -> timed(submission, UPLOAD_PHASE))
+                .timeout(Duration.ofMillis(config.getTimeOutInSeconds()*1000))
+                .map(status -> {
+                    LOGGER.info("Sensitivity computation job '{}' submitted on server '{}'", status.getId(), baseUrl);
+                    return status.getId();
+                });
+    }
+
+    /**
+     * Long-polls the job status until it is finished, then downloads its result. Polls and download dropped
+     * because of network errors are retried, and the job is cancelled on the server when the client times out.
+     */
+    private Mono<SensitivityAnalysisResult> waitForJob(String baseUrl, String jobId) {
+        return Mono.defer(() -> getJobStatus(baseUrl, jobId).retryWhen(retryOnNetworkError()))
+                .repeat()
+                .filter(SensitivityComputationJobStatus::isFinished)
+                .next()
+                .transform(polling -> timed(polling, WAIT_PHASE))
+                .flatMap(status -> {
+                    if (status.getState() == SensitivityComputationJobStatus.State.SUCCEEDED) {
+                        return downloadJobResult(baseUrl, jobId).retryWhen(retryOnNetworkError());
+                    }
+                    return Mono.<SensitivityAnalysisResult>error(new PowsyblException(String.format("Sensitivity computation job '%s' is %s: %s",
+                            jobId, status.getState(), status.getMessage())));
+                })
+                .timeout(Duration.ofMillis(config.getTimeOutInSeconds()*1000))
+                .doOnError(TimeoutException.class, e -> cancelJob(baseUrl, jobId));
+    }
+
+    private Mono<SensitivityComputationJobStatus> getJobStatus(String baseUrl, String jobId) {
+        return webClient.get()
+                .uri(getJobStatusUri(baseUrl, jobId))
+                .retrieve()
+                .bodyToMono(SensitivityComputationJobStatus.class);
+    }
+
+    private Mono<SensitivityAnalysisResult> downloadJobResult(String baseUrl, String jobId) {
+        return webClient.get()
+                .uri(getJobResultUri(baseUrl, jobId))
+                .accept(BINARY_RESULT_TYPE, MediaType.APPLICATION_JSON)
+                .exchange()
+                .flatMap(this::readResult);
+    }
+
+    private void cancelJob(String baseUrl, String jobId) {
+        webClient.delete()
+                .uri(getJobUri(baseUrl, jobId))
+                .retrieve()
+                .toBodilessEntity()
+                .subscribe(null, e -> LOGGER.warn("Sensitivity computation job '{}' could not be cancelled", jobId, e));
+    }
+
+    private static Retry retryOnNetworkError() {
+        return Retry.backoff(MAX_NETWORK_RETRIES, Duration.ofSeconds(1))
+                .filter(e -> !(e instanceof WebClientResponseException));
+    }
+
+    private Mono<SensitivityAnalysisResult> readResult(ClientResponse response) {
+        if (response.statusCode().isError()) {
+            return response.createException().flatMap(Mono::error);
+        }
+        MediaType resultType = response.headers().contentType().orElse(MediaType.APPLICATION_JSON);
+        return DataBufferUtils.join(response.bodyToFlux(DataBuffer.class))
+                .transform(download -> timed(download, DOWNLOAD_PHASE))
+                .publishOn(Schedulers.boundedElastic())
+                .map(resultData -> parseResults(resultData, resultType));
+    }
+
+    private Mono<Boolean> isNetworkCached(String baseUrl, String networkHash) {
+        return webClient.head()
+                .uri(getNetworkUri(baseUrl, networkHash))
+                .retrieve()
+                .toBodilessEntity()
+                .map(response -> true)
+                .onErrorReturn(false);
+    }
+
+    private URI getServerUri(String baseUrl) {
+        return withContingencyChunks(URI.create(baseUrl)
+                .resolve("./api/v1/sensitivity-computation"));
+    }
+
+    private URI getBatchUri(String baseUrl) {
+        return withContingencyChunks(URI.create(baseUrl)
+                .resolve("./api/v1/sensitivity-computation/batch"));
+    }
+
+    private URI withContingencyChunks(URI uri) {
+        return config.getContingencyChunks()
+                .map(contingencyChunks -> URI.create(uri + "?contingencyChunks=" + contingencyChunks))
+                .orElse(uri);
+    }
+
+    private URI getJobsUri(String baseUrl) {
+        return withContingencyChunks(URI.create(baseUrl)
+                .resolve("./api/v1/sensitivity-computation/jobs"));
+    }
+
+    private URI getJobUri(String baseUrl, String jobId) {
+        return URI.create(baseUrl)
+                .resolve("./api/v1/sensitivity-computation/jobs/" + jobId);
     }
 
-    private MultiValueMap<String, HttpEntity<?>> createBody(Network network, String workingStateId, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters) {
+    private URI getJobStatusUri(String baseUrl, String jobId) {
+        return URI.create(getJobUri(baseUrl, jobId) + "?waitInSeconds=" + config.getJobPollWaitInSeconds());
+    }
+
+    private URI getJobResultUri(String baseUrl, String jobId) {
+        return URI.create(baseUrl)
+                .resolve("./api/v1/sensitivity-computation/jobs/" + jobId + "/result");
+    }
+
+    private URI getNetworksUri(String baseUrl) {
+        return URI.create(baseUrl)
+                .resolve("./api/v1/sensitivity-computation/networks");
+    }
+
+    private URI getNetworkUri(String baseUrl, String networkHash) {
+        return URI.create(baseUrl)
+                .resolve("./api/v1/sensitivity-computation/networks/" + networkHash);
+    }
+
+    private MultiValueMap<String, HttpEntity<?>> createBody(SerializedRequestPart networkPart, String networkHash, byte[] modificationsBytes, SerializedRequestPart inputsPart, byte[] parametersBytes, SensitivityResultFilter resultFilter) {
         MultipartBodyBuilder builder = new MultipartBodyBuilder();
-        builder.part("networkFile", getNetworkBytes(network, workingStateId), MediaType.APPLICATION_XML).filename("network.xiidm");
-        builder.part("inputsFile", getInputsBytes(network, factorsProvider, contingencies), MediaType.APPLICATION_JSON).filename("inputs.json");
-        builder.part("parametersFile", getParametersBytes(sensiParameters), MediaType.APPLICATION_JSON).filename("parameters.json");
+        if (networkPart != null) {
+            addNetworkFile(builder, networkPart);
+        }
+        builder.part("networkHash", networkHash, MediaType.TEXT_PLAIN);
+        if (modificationsBytes != null) {
+            builder.part("modificationsFile", modificationsBytes, MediaType.APPLICATION_JSON).filename("modifications.json");
+        }
+        addInputsFile(builder, inputsPart);
+        builder.part("parametersFile", parametersBytes, MediaType.APPLICATION_JSON).filename("parameters.json");
+        addResultFilter(builder, resultFilter);
         return builder.build();
     }
 
-    private byte[] getNetworkBytes(Network network, String workingStateId) {
+    private static void addNetworkFile(MultipartBodyBuilder builder, SerializedRequestPart networkPart) {
+        networkPart.addTo(builder, "networkFile", MediaType.APPLICATION_XML, "network.xiidm");
+    }
+
+    private static void addInputsFile(MultipartBodyBuilder builder, SerializedRequestPart inputsPart) {
+        inputsPart.addTo(builder, "inputsFile", MediaType.APPLICATION_JSON, "inputs.json");
+    }
+
+    private static void addResultFilter(MultipartBodyBuilder builder, SensitivityResultFilter resultFilter) {
+        if (!resultFilter.isEmpty()) {
+            builder.part("resultFilter", resultFilter.toJson(), MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /**
+     * Networks are hashed while being serialized, the hash being computed on the uncompressed XIIDM.
+     */
+    private SerializedRequestPart writeNetwork(Network network, String workingStateId) {
         String initialVariant = network.getVariantManager().getWorkingVariantId();
         network.getVariantManager().setWorkingVariant(workingStateId);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        NetworkXml.write(network, baos);
-        network.getVariantManager().setWorkingVariant(initialVariant);
-        return baos.toByteArray();
+        try {
+            return SerializedRequestPart.write(outputStream -> NetworkXml.write(network, outputStream), config.isRequestCompressionEnabled());
+        } finally {
+            network.getVariantManager().setWorkingVariant(initialVariant);
+        }
+    }
+
+    private SerializedRequestPart writeInputs(SensitivityFactorsProvider factorsProvider, Network network, List<Contingency> contingencies) {
+        return SerializedRequestPart.write(outputStream -> JsonSensitivityInputs.write(factorsProvider, network, contingencies, outputStream), config.isRequestCompressionEnabled());
     }
 
-    private byte[] getInputsBytes(Network network, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies) {
-        return JsonSensitivityInputs.write(factorsProvider, network, contingencies);
+    private static void closeAll(SerializedRequestPart networkPart, List<SerializedRequestPart> inputsParts) {
+        networkPart.close();
+        inputsParts.forEach(SerializedRequestPart::close);
     }
 
     private byte[] getParametersBytes(SensitivityAnalysisParameters sensiParameters) {
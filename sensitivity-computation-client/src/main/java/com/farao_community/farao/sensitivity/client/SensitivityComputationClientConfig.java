@@ -6,10 +6,15 @@
  */
 package com.farao_community.farao.sensitivity.client;
 
+import com.farao_community.farao.sensitivity.api.SensitivityResultFilter;
 import com.powsybl.commons.config.ModuleConfig;
 import com.powsybl.commons.config.PlatformConfig;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
@@ -17,13 +22,40 @@ import java.util.Optional;
 public class SensitivityComputationClientConfig {
     private static final String DEFAULT_BASE_URL = "http://localhost:8080/";
     private static final Integer DEFAULT_TIME_OUT = 30*60;
+    private static final boolean DEFAULT_NETWORK_CACHE_ENABLED = true;
+    private static final int DEFAULT_MAX_CONNECTIONS = 16;
+    private static final boolean DEFAULT_KEEP_ALIVE = true;
+    private static final int DEFAULT_MAX_IDLE_TIME = 60;
+    private static final boolean DEFAULT_ASYNC_JOBS_ENABLED = false;
+    private static final int DEFAULT_JOB_POLL_WAIT = 30;
+    private static final boolean DEFAULT_REQUEST_COMPRESSION_ENABLED = false;
 
-    private final String baseUrl;
+    private final List<String> baseUrls;
     private final int timeOutInSeconds;
+    private final boolean networkCacheEnabled;
+    private final Integer contingencyChunks;
+    private final int maxConnections;
+    private final boolean keepAlive;
+    private final int maxIdleTimeInSeconds;
+    private final SensitivityResultFilter resultFilter;
+    private final boolean asyncJobsEnabled;
+    private final int jobPollWaitInSeconds;
+    private final boolean requestCompressionEnabled;
 
-    private SensitivityComputationClientConfig(String baseUrl, int timeOutInSeconds) {
-        this.baseUrl = baseUrl;
+    private SensitivityComputationClientConfig(List<String> baseUrls, int timeOutInSeconds, boolean networkCacheEnabled, Integer contingencyChunks,
+                                               int maxConnections, boolean keepAlive, int maxIdleTimeInSeconds, SensitivityResultFilter resultFilter,
+                                               boolean asyncJobsEnabled, int jobPollWaitInSeconds, boolean requestCompressionEnabled) {
+        this.baseUrls = baseUrls;
         this.timeOutInSeconds = timeOutInSeconds;
+        this.networkCacheEnabled = networkCacheEnabled;
+        this.contingencyChunks = contingencyChunks;
+        this.maxConnections = maxConnections;
+        this.keepAlive = keepAlive;
+        this.maxIdleTimeInSeconds = maxIdleTimeInSeconds;
+        this.resultFilter = resultFilter;
+        this.asyncJobsEnabled = asyncJobsEnabled;
+        this.jobPollWaitInSeconds = jobPollWaitInSeconds;
+        this.requestCompressionEnabled = requestCompressionEnabled;
     }
 
     public static SensitivityComputationClientConfig fromPropertyFile() {
@@ -33,16 +65,109 @@ public class SensitivityComputationClientConfig {
     public static SensitivityComputationClientConfig fromPlatformConfig(PlatformConfig platformConfig) {
         Optional<ModuleConfig> moduleConfig = platformConfig
                 .getOptionalModuleConfig("sensitivity-computation-client");
-        String baseUrl = moduleConfig.flatMap(mc -> mc.getOptionalStringProperty("base-url")).orElse(DEFAULT_BASE_URL);
+        List<String> baseUrls = moduleConfig.flatMap(mc -> mc.getOptionalStringListProperty("base-urls"))
+                .filter(urls -> !urls.isEmpty())
+                .orElseGet(() -> Collections.singletonList(moduleConfig.flatMap(mc -> mc.getOptionalStringProperty("base-url")).orElse(DEFAULT_BASE_URL)));
         int timeOut = moduleConfig.map(mc -> mc.getIntProperty("time-out-in-seconds", DEFAULT_TIME_OUT)).orElse(DEFAULT_TIME_OUT);
-        return new SensitivityComputationClientConfig(baseUrl, timeOut);
+        boolean networkCacheEnabled = moduleConfig.map(mc -> mc.getBooleanProperty("network-cache-enabled", DEFAULT_NETWORK_CACHE_ENABLED)).orElse(DEFAULT_NETWORK_CACHE_ENABLED);
+        Integer contingencyChunks = moduleConfig.map(mc -> mc.getOptionalIntProperty("contingency-chunks"))
+                .filter(OptionalInt::isPresent)
+                .map(OptionalInt::getAsInt)
+                .orElse(null);
+        int maxConnections = moduleConfig.map(mc -> mc.getIntProperty("max-connections", DEFAULT_MAX_CONNECTIONS)).orElse(DEFAULT_MAX_CONNECTIONS);
+        boolean keepAlive = moduleConfig.map(mc -> mc.getBooleanProperty("keep-alive", DEFAULT_KEEP_ALIVE)).orElse(DEFAULT_KEEP_ALIVE);
+        int maxIdleTime = moduleConfig.map(mc -> mc.getIntProperty("max-idle-time-in-seconds", DEFAULT_MAX_IDLE_TIME)).orElse(DEFAULT_MAX_IDLE_TIME);
+        SensitivityResultFilter resultFilter = new SensitivityResultFilter(
+                moduleConfig.map(mc -> mc.getOptionalDoubleProperty("result-threshold"))
+                        .filter(OptionalDouble::isPresent)
+                        .map(OptionalDouble::getAsDouble)
+                        .orElse(null),
+                moduleConfig.map(mc -> mc.getOptionalIntProperty("result-top-k"))
+                        .filter(OptionalInt::isPresent)
+                        .map(OptionalInt::getAsInt)
+                        .orElse(null),
+                moduleConfig.flatMap(mc -> mc.getOptionalEnumProperty("result-top-k-scope", SensitivityResultFilter.TopKScope.class)).orElse(null),
+                null,
+                null);
+        boolean asyncJobsEnabled = moduleConfig.map(mc -> mc.getBooleanProperty("async-jobs-enabled", DEFAULT_ASYNC_JOBS_ENABLED)).orElse(DEFAULT_ASYNC_JOBS_ENABLED);
+        int jobPollWait = moduleConfig.map(mc -> mc.getIntProperty("job-poll-wait-in-seconds", DEFAULT_JOB_POLL_WAIT)).orElse(DEFAULT_JOB_POLL_WAIT);
+        boolean requestCompressionEnabled = moduleConfig.map(mc -> mc.getBooleanProperty("request-compression-enabled", DEFAULT_REQUEST_COMPRESSION_ENABLED))
+                .orElse(DEFAULT_REQUEST_COMPRESSION_ENABLED);
+        return new SensitivityComputationClientConfig(baseUrls, timeOut, networkCacheEnabled, contingencyChunks, maxConnections, keepAlive, maxIdleTime, resultFilter,
+            asyncJobsEnabled, jobPollWait, requestCompressionEnabled);
     }
 
+    /**
+     * URL of the primary server, on which networks are uploaded and batches are run.
+     */
     public String getBaseUrl() {
-        return baseUrl;
+        return baseUrls.get(0);
+    }
+
+    /**
+     * URLs of all the servers contingencies are sharded across, the primary server first.
+     */
+    public List<String> getBaseUrls() {
+        return baseUrls;
     }
 
     public int getTimeOutInSeconds() {
         return timeOutInSeconds;
     }
+
+    public boolean isNetworkCacheEnabled() {
+        return networkCacheEnabled;
+    }
+
+    /**
+     * Number of chunks the server splits contingencies into, or empty to use the server default.
+     */
+    public Optional<Integer> getContingencyChunks() {
+        return Optional.ofNullable(contingencyChunks);
+    }
+
+    /**
+     * Maximum number of connections opened to each server, shared by all computations run by a client.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public int getMaxIdleTimeInSeconds() {
+        return maxIdleTimeInSeconds;
+    }
+
+    /**
+     * Filter applied by the servers on the results of computations run through the {@link com.powsybl.sensitivity.SensitivityAnalysisProvider} API.
+     */
+    public SensitivityResultFilter getResultFilter() {
+        return resultFilter;
+    }
+
+    /**
+     * Whether computations are submitted as jobs polled until finished, instead of waiting for the result on the submission request.
+     * Disabled by default, as servers of former versions do not provide jobs.
+     */
+    public boolean isAsyncJobsEnabled() {
+        return asyncJobsEnabled;
+    }
+
+    /**
+     * Time the server is asked to wait for a job to finish before answering each poll.
+     */
+    public int getJobPollWaitInSeconds() {
+        return jobPollWaitInSeconds;
+    }
+
+    /**
+     * Whether networks and inputs are uploaded gzip compressed, which servers older than this client do not support.
+     * Disabled by default for that reason.
+     */
+    public boolean isRequestCompressionEnabled() {
+        return requestCompressionEnabled;
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.client;
+
+import com.farao_community.farao.sensitivity.api.NetworkHashing;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request part serialized once into a temporary file, gzip compressed unless compression is disabled,
+ * and streamed from there on each upload. The serialization is done synchronously, so that the network
+ * is not read once the computation has been handed back to the caller.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+final class SerializedRequestPart implements Closeable {
+    static final String GZIP_ENCODING = "gzip";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final String hash;
+    private final boolean compressed;
+
+    private SerializedRequestPart(Path path, String hash, boolean compressed) {
+        this.path = path;
+        this.hash = hash;
+        this.compressed = compressed;
+    }
+
+    static SerializedRequestPart write(Consumer<OutputStream> writer, boolean compressed) {
+        Path path = createTempFile(compressed);
+        try {
+            NetworkHashing.HashingOutputStream hashingStream;
+            try (OutputStream fileStream = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+                 OutputStream encodedStream = compressed ? new GZIPOutputStream(fileStream, BUFFER_SIZE) : fileStream) {
+                hashingStream = new NetworkHashing.HashingOutputStream(encodedStream);
+                writer.accept(hashingStream);
+            }
+            return new SerializedRequestPart(path, hashingStream.getHash(), compressed);
+        } catch (IOException e) {
+            deleteQuietly(path);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Hash of the uncompressed content.
+     */
+    String getHash() {
+        return hash;
+    }
+
+    void addTo(MultipartBodyBuilder builder, String name, MediaType contentType, String filename) {
+        MultipartBodyBuilder.PartBuilder partBuilder = builder.part(name, new FileSystemResource(path), contentType).filename(filename);
+        if (compressed) {
+            partBuilder.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+    }
+
+    @Override
+    public void close() {
+        deleteQuietly(path);
+    }
+
+    private static Path createTempFile(boolean compressed) {
+        try {
+            return Files.createTempFile("sensi-request-part", compressed ? ".gz" : "");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Temporary files are left for the system to clean up
+        }
+    }
+}
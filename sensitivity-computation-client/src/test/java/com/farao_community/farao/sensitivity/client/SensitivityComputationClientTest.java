@@ -6,24 +6,49 @@
  */
 package com.farao_community.farao.sensitivity.client;
 
+import com.farao_community.farao.sensitivity.api.BatchResultEntry;
+import com.farao_community.farao.sensitivity.api.BinarySensitivityAnalysisResult;
+import com.farao_community.farao.sensitivity.api.InternalSensitivityInputsProvider;
+import com.farao_community.farao.sensitivity.api.JsonSensitivityInputs;
+import com.farao_community.farao.sensitivity.api.NetworkModifications;
+import com.farao_community.farao.sensitivity.api.SensitivityResultFilter;
+import com.powsybl.commons.config.InMemoryPlatformConfig;
+import com.powsybl.commons.config.MapModuleConfig;
 import com.powsybl.contingency.BranchContingency;
 import com.powsybl.contingency.Contingency;
 import com.powsybl.iidm.import_.Importers;
 import com.powsybl.iidm.network.Branch;
 import com.powsybl.iidm.network.Load;
 import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManagerConstants;
 import com.powsybl.sensitivity.*;
 import com.powsybl.sensitivity.factors.BranchFlowPerInjectionIncrease;
 import com.powsybl.sensitivity.factors.functions.BranchFlow;
 import com.powsybl.sensitivity.factors.variables.InjectionIncrease;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
@@ -48,4 +73,274 @@ class SensitivityComputationClientTest {
 
         assertTrue(result.isOk());
     }
-}
\ No newline at end of file
+
+    private static SensitivityComputationClient createClient(DisposableServer server) {
+        InMemoryPlatformConfig platformConfig = new InMemoryPlatformConfig(FileSystems.getDefault());
+        platformConfig.createModuleConfig("sensitivity-computation-client")
+            .setStringProperty("base-url", getBaseUrl(server));
+        return new SensitivityComputationClient(SensitivityComputationClientConfig.fromPlatformConfig(platformConfig));
+    }
+
+    private static SensitivityComputationClient createClient(boolean networkCacheEnabled, DisposableServer... servers) {
+        InMemoryPlatformConfig platformConfig = new InMemoryPlatformConfig(FileSystems.getDefault());
+        MapModuleConfig moduleConfig = platformConfig.createModuleConfig("sensitivity-computation-client");
+        moduleConfig.setStringListProperty("base-urls", Arrays.stream(servers).map(SensitivityComputationClientTest::getBaseUrl).collect(Collectors.toList()));
+        moduleConfig.setStringProperty("network-cache-enabled", Boolean.toString(networkCacheEnabled));
+        return new SensitivityComputationClient(SensitivityComputationClientConfig.fromPlatformConfig(platformConfig));
+    }
+
+    private static String getBaseUrl(DisposableServer server) {
+        return "http://localhost:" + server.port() + "/";
+    }
+
+    private static SensitivityFactor createFactor(String branchId) {
+        return new BranchFlowPerInjectionIncrease(new BranchFlow(branchId, branchId, branchId), new InjectionIncrease("load", "load", "load"));
+    }
+
+    private static byte[] writeResult(String... contingencyIds) {
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        for (String contingencyId : contingencyIds) {
+            contingenciesValues.put(contingencyId, List.of(new SensitivityValue(createFactor(contingencyId), 1., 2., 3.)));
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinarySensitivityAnalysisResult.write(new SensitivityAnalysisResult(true, Collections.emptyMap(), "",
+            List.of(new SensitivityValue(createFactor("basecase"), 1., 2., 3.)), contingenciesValues), outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static Publisher<Void> sendResult(HttpServerRequest request, HttpServerResponse response, byte[] result) {
+        return request.receive().then().then(response.header(HttpHeaderNames.CONTENT_TYPE, BinarySensitivityAnalysisResult.MEDIA_TYPE)
+            .sendByteArray(Mono.just(result)).then());
+    }
+
+    private static List<Contingency> createContingencies(String... contingencyIds) {
+        return Arrays.stream(contingencyIds)
+            .map(contingencyId -> new Contingency(contingencyId, new BranchContingency(contingencyId)))
+            .collect(Collectors.toList());
+    }
+
+    private Network loadNetwork() {
+        return Importers.loadNetwork("20170215_0830_2d4_uc1.uct", getClass().getResourceAsStream("/20170215_0830_2d4_uc1.uct"));
+    }
+
+    @Test
+    void checkThatShardFailingOnAServerIsRetriedOnAnother() throws Exception {
+        AtomicInteger failingServerRequests = new AtomicInteger();
+        AtomicInteger succeedingServerRequests = new AtomicInteger();
+        byte[] result = writeResult("co1", "co2");
+        DisposableServer failingServer = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/api/v1/sensitivity-computation", (request, response) -> {
+                failingServerRequests.incrementAndGet();
+                return request.receive().then().then(response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send().then());
+            }))
+            .bindNow();
+        DisposableServer succeedingServer = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/api/v1/sensitivity-computation", (request, response) -> {
+                succeedingServerRequests.incrementAndGet();
+                return sendResult(request, response, result);
+            }))
+            .bindNow();
+        try {
+            List<Contingency> contingencies = createContingencies("co2", "co1");
+            SensitivityFactorsProvider factorsProvider = new SensitivityFactorsProvider() {
+                @Override
+                public List<SensitivityFactor> getCommonFactors(Network networkInput) {
+                    return Collections.emptyList();
+                }
+
+                @Override
+                public List<SensitivityFactor> getAdditionalFactors(Network networkInput, String contingencyId) {
+                    return List.of(createFactor(contingencyId));
+                }
+            };
+
+            SensitivityAnalysisResult mergedResult = createClient(false, failingServer, succeedingServer)
+                .run(loadNetwork(), VariantManagerConstants.INITIAL_VARIANT_ID, factorsProvider, contingencies, new SensitivityAnalysisParameters(), SensitivityResultFilter.none())
+                .get();
+
+            assertEquals(1, failingServerRequests.get());
+            assertEquals(2, succeedingServerRequests.get());
+            assertTrue(mergedResult.isOk());
+            assertEquals(List.of("co2", "co1"), new ArrayList<>(mergedResult.getSensitivityValuesContingencies().keySet()));
+        } finally {
+            failingServer.disposeNow();
+            succeedingServer.disposeNow();
+        }
+    }
+
+    @Test
+    void checkThatFailedBatchVariantsDoNotFailTheBatch() throws Exception {
+        ByteArrayOutputStream batchResult = new ByteArrayOutputStream();
+        new BatchResultEntry("failed", null, "Computation failed").writeLine(batchResult);
+        new BatchResultEntry("succeeded", new SensitivityAnalysisResult(true, Collections.emptyMap(), "", Collections.emptyList(), Collections.emptyMap()), null).writeLine(batchResult);
+        DisposableServer server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/api/v1/sensitivity-computation/batch",
+                (request, response) -> request.receive().then().then(response.sendByteArray(Mono.just(batchResult.toByteArray())).then())))
+            .bindNow();
+        try {
+            Network network = loadNetwork();
+            Map<String, NetworkModifications> variants = new LinkedHashMap<>();
+            variants.put("failed", new NetworkModifications(null, null, null, null));
+            variants.put("succeeded", new NetworkModifications(null, null, null, null));
+
+            Map<String, BatchResultEntry> entries = createClient(server)
+                .runBatch("hash", variants, network, networkInput -> Collections.emptyList(), Collections.emptyList(), new SensitivityAnalysisParameters())
+                .get();
+
+            assertEquals(List.of("failed", "succeeded"), new ArrayList<>(entries.keySet()));
+            assertNull(entries.get("failed").getResult());
+            assertEquals("Computation failed", entries.get("failed").getError());
+            assertNull(entries.get("succeeded").getError());
+            assertTrue(entries.get("succeeded").getResult().isOk());
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void checkThatRunReturnsBeforeTheServerAnswers() throws Exception {
+        byte[] result = writeResult("co1");
+        DisposableServer server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/api/v1/sensitivity-computation",
+                (request, response) -> request.receive().then()
+                    .then(Mono.delay(Duration.ofMillis(500)))
+                    .then(response.header(HttpHeaderNames.CONTENT_TYPE, BinarySensitivityAnalysisResult.MEDIA_TYPE).sendByteArray(Mono.just(result)).then())))
+            .bindNow();
+        try {
+            Thread callerThread = Thread.currentThread();
+
+            CompletableFuture<SensitivityAnalysisResult> future = createClient(false, server)
+                .run(loadNetwork(), VariantManagerConstants.INITIAL_VARIANT_ID, networkInput -> Collections.emptyList(), createContingencies("co1"), new SensitivityAnalysisParameters(), SensitivityResultFilter.none());
+            CompletableFuture<Thread> completingThread = future.thenApply(completedResult -> Thread.currentThread());
+
+            assertFalse(future.isDone());
+            assertNotSame(callerThread, completingThread.get());
+            assertTrue(future.get().isOk());
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void checkThatConnectionsAreReusedAcrossComputations() throws Exception {
+        Set<SocketAddress> clientAddresses = ConcurrentHashMap.newKeySet();
+        byte[] result = writeResult("co1");
+        DisposableServer server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/api/v1/sensitivity-computation", (request, response) -> {
+                clientAddresses.add(request.remoteAddress());
+                return sendResult(request, response, result);
+            }))
+            .bindNow();
+        try {
+            SensitivityComputationClient client = createClient(false, server);
+            Network network = loadNetwork();
+
+            for (int i = 0; i < 3; i++) {
+                assertTrue(client.run(network, VariantManagerConstants.INITIAL_VARIANT_ID, networkInput -> Collections.emptyList(), createContingencies("co1"), new SensitivityAnalysisParameters(), SensitivityResultFilter.none())
+                    .get()
+                    .isOk());
+            }
+
+            assertEquals(1, clientAddresses.size());
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    private static DisposableServer createCachingServer(HttpResponseStatus networkStatus, AtomicInteger networkChecks, List<String> computationBodies) {
+        byte[] result = writeResult("co1");
+        return HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                .head("/api/v1/sensitivity-computation/networks/{hash}", (request, response) -> {
+                    networkChecks.incrementAndGet();
+                    return response.status(networkStatus).send();
+                })
+                .post("/api/v1/sensitivity-computation", (request, response) -> request.receive().aggregate().asString(StandardCharsets.UTF_8)
+                    .doOnNext(computationBodies::add)
+                    .then(response.header(HttpHeaderNames.CONTENT_TYPE, BinarySensitivityAnalysisResult.MEDIA_TYPE).sendByteArray(Mono.just(result)).then())))
+            .bindNow();
+    }
+
+    private SensitivityAnalysisResult runOnCachingServer(DisposableServer server) throws Exception {
+        return createClient(true, server)
+            .run(loadNetwork(), VariantManagerConstants.INITIAL_VARIANT_ID, networkInput -> Collections.emptyList(), createContingencies("co1"), new SensitivityAnalysisParameters(), SensitivityResultFilter.none())
+            .get();
+    }
+
+    @Test
+    void checkThatNetworkCachedOnServerIsNotSent() throws Exception {
+        AtomicInteger networkChecks = new AtomicInteger();
+        List<String> computationBodies = new CopyOnWriteArrayList<>();
+        DisposableServer server = createCachingServer(HttpResponseStatus.OK, networkChecks, computationBodies);
+        try {
+            assertTrue(runOnCachingServer(server).isOk());
+
+            assertEquals(1, networkChecks.get());
+            assertEquals(1, computationBodies.size());
+            assertTrue(computationBodies.get(0).contains("name=\"networkHash\""));
+            assertFalse(computationBodies.get(0).contains("name=\"networkFile\""));
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void checkThatNetworkIsSentWhenCacheCheckFails() throws Exception {
+        AtomicInteger networkChecks = new AtomicInteger();
+        List<String> computationBodies = new CopyOnWriteArrayList<>();
+        DisposableServer server = createCachingServer(HttpResponseStatus.INTERNAL_SERVER_ERROR, networkChecks, computationBodies);
+        try {
+            assertTrue(runOnCachingServer(server).isOk());
+
+            assertEquals(1, networkChecks.get());
+            assertEquals(1, computationBodies.size());
+            assertTrue(computationBodies.get(0).contains("name=\"networkFile\""));
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    private static long getShardsPayload(SensitivityFactorsProvider factorsProvider, Network network, List<Contingency> contingencies, int shardsCount) {
+        return InternalSensitivityInputsProvider.of(factorsProvider, network, contingencies).partition(shardsCount).stream()
+            .mapToLong(shard -> JsonSensitivityInputs.write(shard).length)
+            .sum();
+    }
+
+    @Test
+    void checkThatShardsOnlyDuplicateCommonFactors() {
+        Network network = Importers.loadNetwork("20170215_0830_2d4_uc1.uct", getClass().getResourceAsStream("/20170215_0830_2d4_uc1.uct"));
+        List<Contingency> contingencies = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String suffix = "-" + i;
+            network.getBranchStream().forEach(branch -> contingencies.add(new Contingency(branch.getId() + suffix, new BranchContingency(branch.getId()))));
+        }
+        SensitivityFactorsProvider factorsProvider = new SensitivityFactorsProvider() {
+            @Override
+            public List<SensitivityFactor> getCommonFactors(Network networkInput) {
+                return networkInput.getLoadStream()
+                    .map(load -> new BranchFlowPerInjectionIncrease(new BranchFlow("common", "common", "common"), new InjectionIncrease(load.getId(), load.getId(), load.getId())))
+                    .collect(Collectors.toList());
+            }
+
+            @Override
+            public List<SensitivityFactor> getAdditionalFactors(Network networkInput, String contingencyId) {
+                return networkInput.getLoadStream()
+                    .map(load -> new BranchFlowPerInjectionIncrease(new BranchFlow(contingencyId, contingencyId, contingencyId), new InjectionIncrease(load.getId(), load.getId(), load.getId())))
+                    .collect(Collectors.toList());
+            }
+        };
+        long payload = JsonSensitivityInputs.write(factorsProvider, network, contingencies).length;
+        long commonPayload = JsonSensitivityInputs.write(factorsProvider, network, Collections.emptyList()).length;
+
+        long shardsPayload = getShardsPayload(factorsProvider, network, contingencies, 4);
+
+        assertTrue(shardsPayload <= payload + 3 * commonPayload);
+        assertTrue(shardsPayload < 1.1 * payload);
+    }
+}
@@ -0,0 +1,51 @@
+#!/bin/sh
+#
+# Copyright (c) 2021, RTE (http://www.rte-france.com)
+# This Source Code Form is subject to the terms of the Mozilla Public
+# License, v. 2.0. If a copy of the MPL was not distributed with this
+# file, You can obtain one at https://mozilla.org/MPL/2.0/.
+#
+# Builds the application class data sharing archive added to the image.
+# The classes loaded by a warm-up run are recorded, then archived by the JVM of the base image from jars laid out,
+# named and dated as Jib packages them (/app/classpath and /app/libs, modification time one second after epoch),
+# as the JVM only uses the archive if the jars of the classpath match the ones it was dumped from.
+# The warm-up computes with the stub provider of the server, and the build fails if it fails, rather than archiving a partial class list.
+#
+# Usage: build-archive.sh <build directory> <application jar name> <base image>
+
+set -e
+
+BUILD_DIR="$1"
+JAR_NAME="$2"
+BASE_IMAGE="$3"
+MAIN_CLASS="com.farao_community.farao.sensitivity.server.SensitivityComputationApplication"
+LAYOUT_DIR="$BUILD_DIR/cds-layout/app"
+CDS_DIR="$BUILD_DIR/jib-cds/app/cds"
+
+mkdir -p "$LAYOUT_DIR/classpath" "$CDS_DIR"
+cp "$BUILD_DIR/$JAR_NAME" "$LAYOUT_DIR/classpath/"
+touch -d @1 "$LAYOUT_DIR/classpath/"*.jar "$LAYOUT_DIR/libs/"*.jar
+
+# Explicit classpath, as wildcards are expanded in no guaranteed order
+CLASSPATH="/app/classpath/$JAR_NAME"
+for LIB in $(cd "$LAYOUT_DIR/libs" && ls *.jar | sort); do
+    CLASSPATH="$CLASSPATH:/app/libs/$LIB"
+done
+printf '%s' "$CLASSPATH" > "$CDS_DIR/classpath"
+
+java -Xshare:off -XX:DumpLoadedClassList="$CDS_DIR/classes.lst" -cp "$(printf '%s' "$CLASSPATH" | sed "s#/app/#$LAYOUT_DIR/#g")" "$MAIN_CLASS" \
+    --server.port=0 \
+    --sensitivity-computation.jobs.directory="$BUILD_DIR" \
+    --sensitivity-computation.warm-up.exit-on-completion=true
+
+if [ ! -s "$CDS_DIR/classes.lst" ]; then
+    echo "No class recorded by the warm-up run" >&2
+    exit 1
+fi
+
+docker run --rm --user "$(id -u):$(id -g)" \
+    -v "$LAYOUT_DIR/classpath:/app/classpath:ro" \
+    -v "$LAYOUT_DIR/libs:/app/libs:ro" \
+    -v "$CDS_DIR:/app/cds" \
+    --entrypoint java "$BASE_IMAGE" \
+    -Xshare:dump -XX:SharedClassListFile=/app/cds/classes.lst -XX:SharedArchiveFile=/app/cds/sensitivity-computation.jsa -cp "$CLASSPATH"
@@ -0,0 +1,15 @@
+#!/bin/sh
+#
+# Copyright (c) 2021, RTE (http://www.rte-france.com)
+# This Source Code Form is subject to the terms of the Mozilla Public
+# License, v. 2.0. If a copy of the MPL was not distributed with this
+# file, You can obtain one at https://mozilla.org/MPL/2.0/.
+#
+# Starts the server with the application class data sharing archive built with the image,
+# on the classpath it was dumped with. The JVM ignores the archive if it cannot be used.
+
+CLASSPATH="$(cat /app/cds/classpath)"
+MAIN_CLASS="com.farao_community.farao.sensitivity.server.SensitivityComputationApplication"
+CDS_ARCHIVE="/app/cds/sensitivity-computation.jsa"
+
+exec java $JAVA_OPTS -Xshare:auto -XX:SharedArchiveFile="$CDS_ARCHIVE" -cp "$CLASSPATH" "$MAIN_CLASS" "$@"
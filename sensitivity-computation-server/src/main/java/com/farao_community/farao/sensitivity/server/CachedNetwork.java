@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManager;
+import com.powsybl.iidm.network.VariantManagerConstants;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Parsed network shared between computations.
+ *
+ * Computations never modify the initial variant: each one works on its own variant, reset to the
+ * initial one when checked out, and given back to a pool of variants when the computation ends.
+ *
+ * Creating a variant resizes the variant arrays of the whole network, so it is done under the write lock,
+ * while computations run under the read lock. Variants are only created when the pool is empty, so that
+ * computations rarely wait for each other. Resetting a pooled variant only writes the states of this variant.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class CachedNetwork {
+    private final String hash;
+    private final Network network;
+    private final long weight;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<String> pooledVariants = new ConcurrentLinkedQueue<>();
+
+    public CachedNetwork(String hash, Network network, long weight) {
+        this.hash = hash;
+        this.network = network;
+        this.weight = weight;
+        network.getVariantManager().allowVariantMultiThreadAccess(true);
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public Network getNetwork() {
+        return network;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public String checkoutVariant() {
+        String variantId = pooledVariants.poll();
+        if (variantId == null) {
+            variantId = "sensi-" + UUID.randomUUID();
+            createVariant(variantId);
+        } else {
+            resetVariant(variantId);
+        }
+        return variantId;
+    }
+
+    public void releaseVariant(String variantId) {
+        pooledVariants.add(variantId);
+    }
+
+    /**
+     * Runs a task reading or modifying the states of a checked out variant, while no variant is created.
+     */
+    public <T> T read(Supplier<T> task) {
+        lock.readLock().lock();
+        try {
+            return task.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void createVariant(String variantId) {
+        lock.writeLock().lock();
+        try {
+            VariantManager variantManager = network.getVariantManager();
+            variantManager.cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, variantId);
+            variantManager.setWorkingVariant(variantId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void resetVariant(String variantId) {
+        read(() -> {
+            VariantManager variantManager = network.getVariantManager();
+            variantManager.cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, variantId, true);
+            variantManager.setWorkingVariant(variantId);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.reactivestreams.Subscription;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Utility methods bridging blocking I/O streams and reactive {@link DataBuffer} streams.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public final class DataBufferStreams {
+    private DataBufferStreams() {
+        throw new AssertionError("Utility class should not be implemented");
+    }
+
+    /**
+     * Publishes what the writer writes as a stream of data buffers.
+     *
+     * The writer runs on a bounded elastic thread when the stream is subscribed to. It fills buffers
+     * of {@code chunkSize} bytes allocated from {@code bufferFactory}, and blocks while the downstream
+     * subscriber has no pending demand, so that at most a few chunks are held in memory at a time.
+     * Requests are not scheduled on the writer thread, which would not serve them while waiting for demand.
+     */
+    public static Flux<DataBuffer> fromOutputStream(Consumer<OutputStream> writer, DataBufferFactory bufferFactory, int chunkSize) {
+        return Flux.<DataBuffer>create(sink -> {
+            DataBufferSinkOutputStream outputStream = new DataBufferSinkOutputStream(sink, bufferFactory, chunkSize);
+            try {
+                writer.accept(outputStream);
+                outputStream.close();
+                sink.complete();
+            } catch (Exception e) {
+                outputStream.discard();
+                sink.error(e);
+            }
+        }).subscribeOn(Schedulers.boundedElastic(), false);
+    }
+
+    /**
+     * Exposes a stream of data buffers as a blocking input stream.
+     *
+     * At most {@code prefetch} buffers are requested ahead of the reader, and each buffer is released
+     * as soon as it has been read. Closing the input stream cancels the stream of data buffers and releases
+     * the buffers not read yet. This must not be called from a non-blocking thread.
+     */
+    public static InputStream toInputStream(Flux<DataBuffer> content, int prefetch) {
+        return new DataBufferSourceInputStream(content, prefetch);
+    }
+
+    private static final class DataBufferSourceInputStream extends InputStream {
+        private final BlockingQueue<Signal<DataBuffer>> signals = new LinkedBlockingQueue<>();
+        private final BaseSubscriber<DataBuffer> subscriber;
+        private volatile boolean closed = false;
+        private DataBuffer currentBuffer;
+        private Signal<DataBuffer> terminalSignal;
+
+        private DataBufferSourceInputStream(Flux<DataBuffer> content, int prefetch) {
+            subscriber = new BaseSubscriber<>() {
+                @Override
+                protected void hookOnSubscribe(Subscription subscription) {
+                    subscription.request(prefetch);
+                }
+
+                @Override
+                protected void hookOnNext(DataBuffer buffer) {
+                    signals.add(Signal.next(buffer));
+                    if (closed) {
+                        releasePendingBuffers();
+                    }
+                }
+
+                @Override
+                protected void hookOnComplete() {
+                    signals.add(Signal.complete());
+                }
+
+                @Override
+                protected void hookOnError(Throwable throwable) {
+                    signals.add(Signal.error(throwable));
+                }
+            };
+            content.subscribe(subscriber);
+        }
+
+        @Override
+        public int read() throws IOException {
+            DataBuffer buffer = nextReadableBuffer();
+            return buffer != null ? buffer.read() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            DataBuffer buffer = nextReadableBuffer();
+            if (buffer == null) {
+                return -1;
+            }
+            int toRead = Math.min(length, buffer.readableByteCount());
+            buffer.read(bytes, offset, toRead);
+            return toRead;
+        }
+
+        @Override
+        public int available() {
+            return currentBuffer != null ? currentBuffer.readableByteCount() : 0;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscriber.dispose();
+            if (currentBuffer != null) {
+                DataBufferUtils.release(currentBuffer);
+                currentBuffer = null;
+            }
+            releasePendingBuffers();
+        }
+
+        /**
+         * Buffers received while or after the stream is closed are released by whichever thread sees them last.
+         */
+        private void releasePendingBuffers() {
+            Signal<DataBuffer> signal;
+            while ((signal = signals.poll()) != null) {
+                if (signal.isOnNext()) {
+                    DataBufferUtils.release(signal.get());
+                }
+            }
+        }
+
+        /**
+         * Returns the buffer to read from, or null at the end of the stream. Each fully read buffer
+         * is released, and replaced in the prefetch window by a new request.
+         */
+        private DataBuffer nextReadableBuffer() throws IOException {
+            if (closed) {
+                throw new IOException("Data buffer stream has been closed");
+            }
+            while (currentBuffer == null || currentBuffer.readableByteCount() == 0) {
+                if (currentBuffer != null) {
+                    DataBufferUtils.release(currentBuffer);
+                    currentBuffer = null;
+                    subscriber.request(1);
+                }
+                if (terminalSignal == null) {
+                    Signal<DataBuffer> signal = takeSignal();
+                    if (signal.isOnNext()) {
+                        currentBuffer = signal.get();
+                        continue;
+                    }
+                    terminalSignal = signal;
+                }
+                if (terminalSignal.isOnError()) {
+                    throw Exceptions.propagate(terminalSignal.getThrowable());
+                }
+                return null;
+            }
+            return currentBuffer;
+        }
+
+        private Signal<DataBuffer> takeSignal() throws InterruptedIOException {
+            try {
+                return signals.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for data buffers");
+            }
+        }
+    }
+
+    private static final class DataBufferSinkOutputStream extends OutputStream {
+        private final FluxSink<DataBuffer> sink;
+        private final DataBufferFactory bufferFactory;
+        private final int chunkSize;
+        private final Object demandLock = new Object();
+        private volatile boolean cancelled = false;
+        private DataBuffer currentBuffer;
+
+        private DataBufferSinkOutputStream(FluxSink<DataBuffer> sink, DataBufferFactory bufferFactory, int chunkSize) {
+            this.sink = sink;
+            this.bufferFactory = bufferFactory;
+            this.chunkSize = chunkSize;
+            sink.onRequest(requested -> signalDemandChange());
+            sink.onDispose(() -> {
+                cancelled = true;
+                signalDemandChange();
+            });
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureBuffer();
+            currentBuffer.write((byte) b);
+            if (currentBuffer.writableByteCount() == 0) {
+                emitCurrentBuffer();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            int written = 0;
+            while (written < length) {
+                ensureBuffer();
+                int toWrite = Math.min(length - written, currentBuffer.writableByteCount());
+                currentBuffer.write(bytes, offset + written, toWrite);
+                written += toWrite;
+                if (currentBuffer.writableByteCount() == 0) {
+                    emitCurrentBuffer();
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            // Buffers are emitted when full or when the stream is closed, flushing partial chunks would only fragment the response
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (currentBuffer != null && currentBuffer.readableByteCount() > 0) {
+                emitCurrentBuffer();
+            }
+            discard();
+        }
+
+        private void discard() {
+            if (currentBuffer != null) {
+                DataBufferUtils.release(currentBuffer);
+                currentBuffer = null;
+            }
+        }
+
+        private void ensureBuffer() throws IOException {
+            if (cancelled) {
+                throw new IOException("Data buffer stream has been cancelled");
+            }
+            if (currentBuffer == null) {
+                currentBuffer = bufferFactory.allocateBuffer(chunkSize);
+            }
+        }
+
+        private void emitCurrentBuffer() throws IOException {
+            awaitDemand();
+            DataBuffer buffer = currentBuffer;
+            currentBuffer = null;
+            sink.next(buffer);
+        }
+
+        private void awaitDemand() throws IOException {
+            synchronized (demandLock) {
+                while (!cancelled && sink.requestedFromDownstream() == 0) {
+                    try {
+                        demandLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for data buffer demand");
+                    }
+                }
+            }
+            if (cancelled) {
+                throw new IOException("Data buffer stream has been cancelled");
+            }
+        }
+
+        private void signalDemandChange() {
+            synchronized (demandLock) {
+                demandLock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * File part whose content is decompressed on the fly, according to the content encoding of the part.
+ * Decompression fails with a {@code 413 Payload Too Large} status once the decompressed content exceeds the given size,
+ * so that a small compressed part cannot fill the disk or the memory of the server.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public final class DecompressingFilePart implements FilePart {
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String IDENTITY_ENCODING = "identity";
+    private static final DataBufferFactory BUFFER_FACTORY = new DefaultDataBufferFactory();
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int PREFETCH = 16;
+
+    private final FilePart part;
+    private final long maxDecompressedSize;
+
+    private DecompressingFilePart(FilePart part, long maxDecompressedSize) {
+        this.part = part;
+        this.maxDecompressedSize = maxDecompressedSize;
+    }
+
+    /**
+     * Returns the part as is when it is not encoded, and a decompressing part when it is gzip encoded.
+     *
+     * @throws ResponseStatusException if the part is encoded in an unsupported format
+     */
+    public static FilePart decode(FilePart part, long maxDecompressedSize) {
+        if (part == null) {
+            return null;
+        }
+        String encoding = part.headers().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.isBlank() || IDENTITY_ENCODING.equalsIgnoreCase(encoding.trim())) {
+            return part;
+        }
+        if (GZIP_ENCODING.equalsIgnoreCase(encoding.trim())) {
+            return new DecompressingFilePart(part, maxDecompressedSize);
+        }
+        throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, String.format("Unsupported content encoding '%s' for part '%s'", encoding, part.name()));
+    }
+
+    @Override
+    public String name() {
+        return part.name();
+    }
+
+    @Override
+    public String filename() {
+        return part.filename();
+    }
+
+    /**
+     * Headers of the compressed part, except for the content encoding.
+     */
+    @Override
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(part.headers());
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    @Override
+    public Flux<DataBuffer> content() {
+        return DataBufferStreams.fromOutputStream(outputStream -> {
+            try (InputStream inputStream = new GZIPInputStream(DataBufferStreams.toInputStream(part.content(), PREFETCH), CHUNK_SIZE)) {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                long decompressedSize = 0;
+                int read;
+                while ((read = inputStream.read(buffer)) >= 0) {
+                    decompressedSize += read;
+                    if (decompressedSize > maxDecompressedSize) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            String.format("Part '%s' exceeds %d bytes once decompressed", part.name(), maxDecompressedSize));
+                    }
+                    outputStream.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, BUFFER_FACTORY, CHUNK_SIZE);
+    }
+
+    @Override
+    public Mono<Void> transferTo(Path dest) {
+        return DataBufferUtils.write(content(), dest);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times the receive phase of multipart requests, from the start of the request to the end of its body.
+ *
+ * Multipart data is read from the request the exchange was created with, so the end of the body is the end
+ * of the multipart data parsing, rather than the end of the body of a decorated request.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class MultipartReceiveTimingFilter implements WebFilter {
+    private final SensitivityComputationMetrics metrics;
+
+    public MultipartReceiveTimingFilter(SensitivityComputationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        MediaType contentType = exchange.getRequest().getHeaders().getContentType();
+        if (contentType == null || !MediaType.MULTIPART_FORM_DATA.isCompatibleWith(contentType)) {
+            return chain.filter(exchange);
+        }
+        long startTime = System.nanoTime();
+        Mono<MultiValueMap<String, Part>> timedMultipartData = exchange.getMultipartData()
+            .doOnSuccess(multipartData -> metrics.recordPhase(SensitivityComputationMetrics.Phase.RECEIVE, System.nanoTime() - startTime))
+            .cache();
+        return chain.filter(new ServerWebExchangeDecorator(exchange) {
+            @Override
+            public Mono<MultiValueMap<String, Part>> getMultipartData() {
+                return timedMultipartData;
+            }
+        });
+    }
+}
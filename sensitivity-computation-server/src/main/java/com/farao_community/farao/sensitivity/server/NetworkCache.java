@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.powsybl.iidm.network.Network;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Least recently used cache of parsed networks, indexed by the hash of their serialized content.
+ *
+ * The size of the cache is bounded by the sum of the weights of the cached networks, the weight of
+ * a network being the size of its serialized form.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class NetworkCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetworkCache.class);
+
+    private final boolean enabled;
+    private final long maxWeight;
+    private final Map<String, CachedNetwork> networks = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentWeight = 0;
+
+    public NetworkCache(SensitivityComputationServerProperties properties) {
+        this.enabled = properties.getNetworkCache().isEnabled();
+        this.maxWeight = properties.getNetworkCache().getMaxWeightInBytes();
+    }
+
+    public synchronized boolean contains(String hash) {
+        return networks.containsKey(hash);
+    }
+
+    public synchronized Optional<CachedNetwork> get(String hash) {
+        return Optional.ofNullable(networks.get(hash));
+    }
+
+    /**
+     * Returns the cached network with the given hash, importing it with the given supplier on a miss.
+     *
+     * The import runs outside of the cache lock, so two concurrent misses on the same hash may both
+     * import the network, the first one to finish being kept in the cache.
+     */
+    public CachedNetwork getOrImport(String hash, Supplier<Network> importer, long weight) {
+        Optional<CachedNetwork> cachedNetwork = get(hash);
+        if (cachedNetwork.isPresent()) {
+            LOGGER.info("Network '{}' found in cache", hash);
+            return cachedNetwork.get();
+        }
+        return put(new CachedNetwork(hash, importer.get(), weight));
+    }
+
+    public synchronized void evict(String hash) {
+        CachedNetwork evictedNetwork = networks.remove(hash);
+        if (evictedNetwork != null) {
+            currentWeight -= evictedNetwork.getWeight();
+            LOGGER.info("Network '{}' evicted from cache", hash);
+        }
+    }
+
+    private synchronized CachedNetwork put(CachedNetwork cachedNetwork) {
+        if (!enabled || cachedNetwork.getWeight() > maxWeight) {
+            return cachedNetwork;
+        }
+        CachedNetwork existingNetwork = networks.putIfAbsent(cachedNetwork.getHash(), cachedNetwork);
+        if (existingNetwork != null) {
+            return existingNetwork;
+        }
+        currentWeight += cachedNetwork.getWeight();
+        evictIfNeeded();
+        return cachedNetwork;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<CachedNetwork> iterator = networks.values().iterator();
+        while (currentWeight > maxWeight && iterator.hasNext()) {
+            CachedNetwork evictedNetwork = iterator.next();
+            iterator.remove();
+            currentWeight -= evictedNetwork.getWeight();
+            LOGGER.info("Network '{}' evicted from cache", evictedNetwork.getHash());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Rejects computation requests with a 503 status as soon as they arrive when the computation queue is full,
+ * so that their multipart body is neither received nor parsed.
+ *
+ * The queue may still fill up while an admitted request is received, in which case the scheduler rejects it afterwards.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class SensitivityComputationAdmissionFilter implements WebFilter {
+    private static final String COMPUTATION_PATH = "/api/v1/sensitivity-computation";
+    private static final Set<String> COMPUTATION_PATHS = Set.of(COMPUTATION_PATH, COMPUTATION_PATH + "/batch", COMPUTATION_PATH + "/jobs");
+
+    private final SensitivityComputationScheduler scheduler;
+
+    public SensitivityComputationAdmissionFilter(SensitivityComputationScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.POST
+            || !COMPUTATION_PATHS.contains(exchange.getRequest().getPath().pathWithinApplication().value())
+            || scheduler.hasCapacity()) {
+            return chain.filter(exchange);
+        }
+        SensitivityComputationRejectedException rejection = scheduler.reject();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(rejection.getRetryAfterInSeconds()));
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejection.getMessage().getBytes(StandardCharsets.UTF_8))));
+    }
+}
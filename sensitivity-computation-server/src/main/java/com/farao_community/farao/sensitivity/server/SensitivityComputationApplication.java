@@ -8,11 +8,13 @@ package com.farao_community.farao.sensitivity.server;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
  */
 @SpringBootApplication
+@EnableConfigurationProperties(SensitivityComputationServerProperties.class)
 public class SensitivityComputationApplication {
 
     public static void main(String[] args) {
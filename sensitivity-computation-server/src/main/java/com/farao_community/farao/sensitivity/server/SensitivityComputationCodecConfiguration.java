@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads multipart requests with file parts spilled to disk, whatever the in-memory limit of the other codecs.
+ *
+ * Inputs and networks are much larger than {@code spring.codec.max-in-memory-size}, which still bounds the other parts,
+ * such as the network hash and the result filter, decoded as strings.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Configuration
+public class SensitivityComputationCodecConfiguration {
+
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public CodecCustomizer multipartCodecCustomizer(SensitivityComputationServerProperties properties) {
+        SynchronossPartHttpMessageReader partReader = new SynchronossPartHttpMessageReader();
+        partReader.setMaxInMemorySize(-1);
+        partReader.setMaxDiskUsagePerPart(properties.getMultipart().getMaxDiskUsagePerPartInBytes());
+        partReader.setMaxParts(properties.getMultipart().getMaxParts());
+        MultipartHttpMessageReader multipartReader = new MultipartHttpMessageReader(new FilePartReader(partReader));
+        return configurer -> {
+            if (configurer instanceof ServerCodecConfigurer) {
+                ((ServerCodecConfigurer) configurer).defaultCodecs().multipartReader(multipartReader);
+            }
+        };
+    }
+
+    /**
+     * Hides the part reader from the default codecs configuration, which would otherwise apply the in-memory limit to it.
+     */
+    private static final class FilePartReader implements HttpMessageReader<Part> {
+        private final HttpMessageReader<Part> delegate;
+
+        private FilePartReader(HttpMessageReader<Part> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<MediaType> getReadableMediaTypes() {
+            return delegate.getReadableMediaTypes();
+        }
+
+        @Override
+        public boolean canRead(ResolvableType elementType, MediaType mediaType) {
+            return delegate.canRead(elementType, mediaType);
+        }
+
+        @Override
+        public Flux<Part> read(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+            return delegate.read(elementType, message, hints);
+        }
+
+        @Override
+        public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+            return delegate.readMono(elementType, message, hints);
+        }
+    }
+}
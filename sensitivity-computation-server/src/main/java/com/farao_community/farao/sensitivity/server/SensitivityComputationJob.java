@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.farao_community.farao.sensitivity.api.SensitivityComputationJobStatus;
+import com.farao_community.farao.sensitivity.api.SensitivityComputationJobStatus.State;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sensitivity computation run asynchronously, whose result is stored on disk once finished.
+ *
+ * Each job owns a directory, holding its request parts until the computation starts, then its result.
+ * A job is finished once it succeeded, failed or has been cancelled, and never changes state afterwards.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class SensitivityComputationJob {
+    private static final String RESULT_FILENAME = "result.bin";
+
+    private final String id;
+    private final Path directory;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private State state = State.QUEUED;
+    private String message;
+    private long finishTimeInMillis;
+    private long resultSize;
+    private Disposable computation;
+
+    public SensitivityComputationJob(String id, Path directory) {
+        this.id = id;
+        this.directory = directory;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Path getResultPath() {
+        return directory.resolve(RESULT_FILENAME);
+    }
+
+    public synchronized SensitivityComputationJobStatus getStatus() {
+        return new SensitivityComputationJobStatus(id, state, message);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isFinished() {
+        return state.isFinished();
+    }
+
+    public synchronized long getFinishTimeInMillis() {
+        return finishTimeInMillis;
+    }
+
+    /**
+     * Size of the stored result, zero until the job succeeds.
+     */
+    public synchronized long getResultSize() {
+        return resultSize;
+    }
+
+    /**
+     * Attaches the running computation, disposed when the job gets cancelled.
+     */
+    public synchronized void setComputation(Disposable computation) {
+        this.computation = computation;
+        if (state == State.CANCELLED) {
+            computation.dispose();
+        }
+    }
+
+    /**
+     * Marks the job as running, unless it has been cancelled while queued.
+     *
+     * @return true if the computation should go on
+     */
+    public synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        return true;
+    }
+
+    /**
+     * Marks the job as succeeded, unless it has been cancelled during the computation.
+     *
+     * @return true if the result has been accepted
+     */
+    public boolean succeed(long resultSize) {
+        synchronized (this) {
+            if (state.isFinished()) {
+                return false;
+            }
+            this.resultSize = resultSize;
+            finish(State.SUCCEEDED, null);
+        }
+        completion.complete(null);
+        return true;
+    }
+
+    public void fail(String message) {
+        synchronized (this) {
+            if (state.isFinished()) {
+                return;
+            }
+            finish(State.FAILED, message);
+        }
+        completion.complete(null);
+    }
+
+    /**
+     * Cancels the job, interrupting its computation if already started.
+     *
+     * @return false if the job was already finished
+     */
+    public boolean cancel() {
+        synchronized (this) {
+            if (state.isFinished()) {
+                return false;
+            }
+            finish(State.CANCELLED, null);
+            if (computation != null) {
+                computation.dispose();
+            }
+        }
+        completion.complete(null);
+        return true;
+    }
+
+    /**
+     * Completes when the job is finished, or empty after the given wait.
+     */
+    public Mono<Void> awaitFinish(Duration wait) {
+        // Cancelling a copy leaves the job completion untouched
+        return Mono.fromFuture(completion.copy()).timeout(wait, Mono.empty());
+    }
+
+    private void finish(State finalState, String finalMessage) {
+        state = finalState;
+        message = finalMessage;
+        finishTimeInMillis = System.currentTimeMillis();
+    }
+}
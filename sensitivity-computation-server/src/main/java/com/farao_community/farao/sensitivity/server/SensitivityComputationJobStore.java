@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Registry of sensitivity computation jobs, each one stored in its own directory on local disk.
+ *
+ * Finished jobs are evicted with their directory once older than the result time to live. When the job directories,
+ * with the saved request parts of unfinished jobs and the results of finished ones, exceed the disk quota,
+ * the oldest finished jobs are evicted first. Unfinished jobs are never evicted.
+ * Jobs do not survive a restart of the server: the store keeps them in a subdirectory it creates in the
+ * configured directory, and deletes along with its jobs on shutdown. Nothing else in the configured directory is touched.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class SensitivityComputationJobStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensitivityComputationJobStore.class);
+    private static final String DIRECTORY_PREFIX = "sensi-jobs-";
+
+    private final Path directory;
+    private final long resultTtlInMillis;
+    private final long maxDiskUsage;
+    private final Map<String, SensitivityComputationJob> jobs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictionExecutor;
+
+    public SensitivityComputationJobStore(SensitivityComputationServerProperties properties) {
+        SensitivityComputationServerProperties.Jobs jobsProperties = properties.getJobs();
+        this.resultTtlInMillis = jobsProperties.getResultTtlInSeconds() * 1000L;
+        this.maxDiskUsage = jobsProperties.getMaxDiskUsageInBytes();
+        try {
+            this.directory = Files.createTempDirectory(Files.createDirectories(Paths.get(jobsProperties.getDirectory())), DIRECTORY_PREFIX);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "sensi-job-eviction"));
+        evictionExecutor.scheduleWithFixedDelay(this::evictIfNeeded,
+            jobsProperties.getEvictionPeriodInSeconds(), jobsProperties.getEvictionPeriodInSeconds(), TimeUnit.SECONDS);
+    }
+
+    public SensitivityComputationJob create() throws IOException {
+        String id = UUID.randomUUID().toString();
+        SensitivityComputationJob job = new SensitivityComputationJob(id, Files.createDirectory(directory.resolve(id)));
+        jobs.put(id, job);
+        return job;
+    }
+
+    /**
+     * Directory owned by the store, holding the directory of each job.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Optional<SensitivityComputationJob> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Removes the job from the store and deletes its directory.
+     * A result being downloaded remains readable until the end of the download.
+     */
+    public void remove(SensitivityComputationJob job) {
+        jobs.remove(job.getId());
+        try {
+            FileSystemUtils.deleteRecursively(job.getDirectory());
+        } catch (IOException e) {
+            LOGGER.warn("Directory of job '{}' could not be deleted", job.getId(), e);
+        }
+    }
+
+    /**
+     * Evicts finished jobs older than the time to live, then the oldest finished ones until all the job directories fit in the disk quota.
+     *
+     * @return whether the job directories fit in the disk quota
+     */
+    public synchronized boolean evictIfNeeded() {
+        long now = System.currentTimeMillis();
+        List<SensitivityComputationJob> finishedJobs = new ArrayList<>();
+        Map<SensitivityComputationJob, Long> jobsDiskUsage = new HashMap<>();
+        long diskUsage = 0;
+        for (SensitivityComputationJob job : jobs.values()) {
+            if (job.isFinished() && now - job.getFinishTimeInMillis() > resultTtlInMillis) {
+                LOGGER.info("Job '{}' evicted after its time to live", job.getId());
+                remove(job);
+                continue;
+            }
+            long jobDiskUsage = getDiskUsage(job.getDirectory());
+            jobsDiskUsage.put(job, jobDiskUsage);
+            diskUsage += jobDiskUsage;
+            if (job.isFinished()) {
+                finishedJobs.add(job);
+            }
+        }
+        finishedJobs.sort(Comparator.comparingLong(SensitivityComputationJob::getFinishTimeInMillis));
+        Iterator<SensitivityComputationJob> iterator = finishedJobs.iterator();
+        while (diskUsage > maxDiskUsage && iterator.hasNext()) {
+            SensitivityComputationJob evictedJob = iterator.next();
+            diskUsage -= jobsDiskUsage.get(evictedJob);
+            LOGGER.info("Job '{}' evicted to fit in disk quota", evictedJob.getId());
+            remove(evictedJob);
+        }
+        return diskUsage <= maxDiskUsage;
+    }
+
+    /**
+     * Size of the files of the directory, files deleted while it is walked being ignored.
+     */
+    private static long getDiskUsage(Path jobDirectory) {
+        long diskUsage = 0;
+        try (Stream<Path> paths = Files.walk(jobDirectory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                try {
+                    diskUsage += Files.isRegularFile(path) ? Files.size(path) : 0;
+                } catch (NoSuchFileException e) {
+                    // Deleted since it was listed
+                }
+            }
+        } catch (NoSuchFileException | UncheckedIOException e) {
+            // Job directory deleted while it is walked
+        } catch (IOException e) {
+            LOGGER.warn("Disk usage of job directory '{}' could not be read", jobDirectory, e);
+        }
+        return diskUsage;
+    }
+
+    /**
+     * Cancels the unfinished jobs, then deletes all the jobs and the store directory.
+     */
+    @PreDestroy
+    public void shutdown() {
+        evictionExecutor.shutdownNow();
+        for (SensitivityComputationJob job : jobs.values()) {
+            job.cancel();
+            remove(job);
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            LOGGER.warn("Jobs directory '{}' could not be deleted", directory, e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters of the sensitivity computations, exposed through the actuator Prometheus endpoint.
+ *
+ * Each phase of a computation is timed by the {@code sensitivity.computation.phase} timer, tagged with the phase name.
+ * Heap allocations are only measured when the JVM supports per thread allocation counters.
+ * Timers and distribution summaries are reset once the server is warmed up, so that they only account for client requests.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class SensitivityComputationMetrics {
+    public enum Phase {
+        RECEIVE("receive"),
+        NETWORK_IMPORT("network-import"),
+        INPUTS_PARSE("inputs-parse"),
+        PARAMETERS_PARSE("parameters-parse"),
+        COMPUTATION("computation"),
+        RESULT_EXPORT("result-export");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private volatile Map<Phase, Timer> phaseTimers;
+    private volatile DistributionSummary networkSize;
+    private volatile DistributionSummary factors;
+    private volatile DistributionSummary contingencies;
+    private volatile DistributionSummary resultSize;
+    private volatile DistributionSummary allocatedBytes;
+    private final com.sun.management.ThreadMXBean allocationCounter;
+
+    public SensitivityComputationMetrics(MeterRegistry registry, SensitivityComputationScheduler scheduler) {
+        this.registry = registry;
+        registerMeters();
+        Gauge.builder("sensitivity.computation.running", scheduler, SensitivityComputationScheduler::getRunningComputations)
+            .description("Number of computations running")
+            .register(registry);
+        Gauge.builder("sensitivity.computation.queued", scheduler, SensitivityComputationScheduler::getQueuedComputations)
+            .description("Number of computations waiting for a free slot")
+            .register(registry);
+        this.allocationCounter = getAllocationCounter();
+    }
+
+    /**
+     * Removes the timers and distribution summaries, and registers them again from scratch.
+     */
+    public synchronized void reset() {
+        phaseTimers.values().forEach(registry::remove);
+        List.of(networkSize, factors, contingencies, resultSize, allocatedBytes).forEach(registry::remove);
+        registerMeters();
+    }
+
+    private void registerMeters() {
+        Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            timers.put(phase, Timer.builder("sensitivity.computation.phase")
+                .description("Time spent in each phase of sensitivity computations")
+                .tag("phase", phase.tag)
+                .publishPercentileHistogram()
+                .register(registry));
+        }
+        this.phaseTimers = timers;
+        this.networkSize = bytesSummary("sensitivity.computation.network.size", "Size of uploaded networks", registry);
+        this.factors = countSummary("sensitivity.computation.factors", "Number of listed input factors of each request", registry);
+        this.contingencies = countSummary("sensitivity.computation.contingencies", "Number of contingencies", registry);
+        this.resultSize = bytesSummary("sensitivity.computation.result.size", "Size of exported results", registry);
+        this.allocatedBytes = bytesSummary("sensitivity.computation.allocated", "Heap allocated by the computation phase", registry);
+    }
+
+    public <T> T time(Phase phase, Supplier<T> task) {
+        return phaseTimers.get(phase).record(task);
+    }
+
+    public void recordPhase(Phase phase, long durationInNanos) {
+        phaseTimers.get(phase).record(durationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordNetworkSize(long size) {
+        networkSize.record(size);
+    }
+
+    public void recordFactors(long count) {
+        factors.record(count);
+    }
+
+    public void recordContingencies(int count) {
+        contingencies.record(count);
+    }
+
+    public void recordResultSize(long size) {
+        resultSize.record(size);
+    }
+
+    /**
+     * Number of bytes allocated so far by the current thread, or a negative value if not supported.
+     */
+    public long getCurrentThreadAllocatedBytes() {
+        return allocationCounter != null ? allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    public void recordAllocatedBytes(long size) {
+        if (allocationCounter != null) {
+            allocatedBytes.record(size);
+        }
+    }
+
+    private static DistributionSummary bytesSummary(String name, String description, MeterRegistry registry) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static DistributionSummary countSummary(String name, String description, MeterRegistry registry) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationCounter() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationCounter.isThreadAllocatedMemorySupported() && allocationCounter.isThreadAllocatedMemoryEnabled()) {
+                return allocationCounter;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.farao_community.farao.sensitivity.api.SensitivityResultFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Parts of a sensitivity computation request.
+ *
+ * The network is either uploaded as a file, or referenced by the hash of a network already cached on
+ * the server. Network modifications are optional. Variants are only used by batch computations.
+ * File parts are expected to be decoded already, see {@link DecompressingFilePart}. Warm-up requests are sent by the server itself when it starts.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class SensitivityComputationRequest {
+    private final FilePart networkFile;
+    private final String networkHash;
+    private final FilePart modificationsFile;
+    private final FilePart variantsFile;
+    private final FilePart inputsFile;
+    private final FilePart parametersFile;
+    private final Integer contingencyChunks;
+    private final SensitivityResultFilter resultFilter;
+    private final boolean warmUp;
+
+    public SensitivityComputationRequest(FilePart networkFile, String networkHash, FilePart modificationsFile, FilePart variantsFile, FilePart inputsFile, FilePart parametersFile,
+                                         Integer contingencyChunks, SensitivityResultFilter resultFilter, boolean warmUp) {
+        if (contingencyChunks != null && contingencyChunks < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("Invalid number of contingency chunks %d, it must be at least 1", contingencyChunks));
+        }
+        this.networkFile = networkFile;
+        this.networkHash = networkHash;
+        this.modificationsFile = modificationsFile;
+        this.variantsFile = variantsFile;
+        this.inputsFile = inputsFile;
+        this.parametersFile = parametersFile;
+        this.contingencyChunks = contingencyChunks;
+        this.resultFilter = resultFilter != null ? resultFilter : SensitivityResultFilter.none();
+        this.warmUp = warmUp;
+    }
+
+    public FilePart getNetworkFile() {
+        return networkFile;
+    }
+
+    public String getNetworkHash() {
+        return networkHash;
+    }
+
+    public FilePart getModificationsFile() {
+        return modificationsFile;
+    }
+
+    public FilePart getVariantsFile() {
+        return variantsFile;
+    }
+
+    public FilePart getInputsFile() {
+        return inputsFile;
+    }
+
+    public FilePart getParametersFile() {
+        return parametersFile;
+    }
+
+    /**
+     * Number of chunks the contingencies are split into, or null to use the server default.
+     * It is bounded by the number of contingencies when the computation runs.
+     */
+    public Integer getContingencyChunks() {
+        return contingencyChunks;
+    }
+
+    /**
+     * Filter applied on results before they are sent back.
+     */
+    public SensitivityResultFilter getResultFilter() {
+        return resultFilter;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+}
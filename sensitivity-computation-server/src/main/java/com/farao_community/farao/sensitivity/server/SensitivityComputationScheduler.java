@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs sensitivity computations on a dedicated thread pool, out of the web server event loop.
+ *
+ * At most {@code maxConcurrentRuns} computations run at the same time, and at most {@code queueCapacity}
+ * computations wait for a free slot. Any computation submitted beyond that is rejected right away.
+ * Computation requests are also rejected before being received when no slot is left, see {@link SensitivityComputationAdmissionFilter}.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class SensitivityComputationScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensitivityComputationScheduler.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Scheduler batchScheduler;
+    private final int batchParallelism;
+    private final Scheduler chunkScheduler;
+    private final int retryAfterInSeconds;
+    private final AtomicInteger runningComputations = new AtomicInteger();
+    private final AtomicLong startedComputations = new AtomicLong();
+    private final AtomicLong completedComputations = new AtomicLong();
+    private final AtomicLong rejectedComputations = new AtomicLong();
+    private final AtomicLong totalWaitTimeInMillis = new AtomicLong();
+    private final AtomicLong lastWaitTimeInMillis = new AtomicLong();
+
+    public SensitivityComputationScheduler(SensitivityComputationServerProperties properties) {
+        SensitivityComputationServerProperties.Scheduler schedulerProperties = properties.getScheduler();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            schedulerProperties.getMaxConcurrentRuns(),
+            schedulerProperties.getMaxConcurrentRuns(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, schedulerProperties.getQueueCapacity())),
+            runnable -> new Thread(runnable, "sensi-computation-" + threadIndex.incrementAndGet()),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.batchParallelism = schedulerProperties.getBatchParallelism();
+        this.batchScheduler = Schedulers.newBoundedElastic(batchParallelism, Integer.MAX_VALUE, "sensi-batch");
+        this.chunkScheduler = Schedulers.newBoundedElastic(schedulerProperties.getChunkParallelism(), Integer.MAX_VALUE, "sensi-chunk");
+        this.retryAfterInSeconds = schedulerProperties.getRetryAfterInSeconds();
+    }
+
+    /**
+     * Schedules a blocking task on the computation pool.
+     *
+     * The task is submitted on subscription. If the wait queue is full, the returned {@link Mono} fails
+     * with a {@link SensitivityComputationRejectedException}. Cancelling the subscription interrupts the task.
+     * Errors thrown by the task, such as a provider that cannot be loaded, fail the returned {@link Mono} as exceptions do.
+     */
+    public <T> Mono<T> schedule(Callable<T> task) {
+        return submit(task, null);
+    }
+
+    /**
+     * Schedules a blocking task returning a flux, as {@link #schedule(Callable)} does, but holds the computation slot
+     * until the returned flux terminates or is cancelled, so that the work it does on other schedulers is admitted
+     * and accounted for as a single computation.
+     */
+    public <T> Mono<Flux<T>> scheduleHeld(Callable<Flux<T>> task) {
+        return Mono.defer(() -> {
+            CountDownLatch released = new CountDownLatch(1);
+            return submit(() -> task.call().doFinally(signal -> released.countDown()), released);
+        });
+    }
+
+    private <T> Mono<T> submit(Callable<T> task, CountDownLatch released) {
+        return Mono.create(sink -> {
+            long submissionTime = System.currentTimeMillis();
+            Future<?> future;
+            try {
+                future = executor.submit(() -> {
+                    long waitTime = System.currentTimeMillis() - submissionTime;
+                    lastWaitTimeInMillis.set(waitTime);
+                    totalWaitTimeInMillis.addAndGet(waitTime);
+                    startedComputations.incrementAndGet();
+                    runningComputations.incrementAndGet();
+                    try {
+                        sink.success(task.call());
+                        if (released != null) {
+                            released.await();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        sink.error(e);
+                    } catch (Throwable t) {
+                        sink.error(t);
+                    } finally {
+                        runningComputations.decrementAndGet();
+                        completedComputations.incrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                sink.error(reject());
+                return;
+            }
+            sink.onCancel(() -> future.cancel(true));
+        });
+    }
+
+    /**
+     * Whether a computation submitted now would be admitted, so that requests can be rejected before their inputs are received.
+     */
+    public boolean hasCapacity() {
+        return executor.getQueue().remainingCapacity() > 0 || executor.getActiveCount() < executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Records the rejection of a computation, and returns the exception to signal it with.
+     */
+    public SensitivityComputationRejectedException reject() {
+        rejectedComputations.incrementAndGet();
+        LOGGER.warn("Sensitivity computation rejected, {} computations already queued", getQueuedComputations());
+        return new SensitivityComputationRejectedException("Sensitivity computation queue is full", retryAfterInSeconds);
+    }
+
+    /**
+     * Scheduler on which variant computations of admitted batches run.
+     */
+    public Scheduler getBatchScheduler() {
+        return batchScheduler;
+    }
+
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    /**
+     * Scheduler on which contingency chunks of admitted computations run.
+     *
+     * It is distinct from the batch scheduler, as batch variant computations may wait for their own chunks.
+     */
+    public Scheduler getChunkScheduler() {
+        return chunkScheduler;
+    }
+
+    public int getRunningComputations() {
+        return runningComputations.get();
+    }
+
+    public int getQueuedComputations() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueRemainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    public long getCompletedComputations() {
+        return completedComputations.get();
+    }
+
+    public long getRejectedComputations() {
+        return rejectedComputations.get();
+    }
+
+    public long getLastWaitTimeInMillis() {
+        return lastWaitTimeInMillis.get();
+    }
+
+    public long getMeanWaitTimeInMillis() {
+        long started = startedComputations.get();
+        return started == 0 ? 0 : totalWaitTimeInMillis.get() / started;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        batchScheduler.dispose();
+        chunkScheduler.dispose();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes computation queue depth and wait times on the actuator health endpoint.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class SensitivityComputationSchedulerHealthIndicator implements HealthIndicator {
+    private final SensitivityComputationScheduler scheduler;
+
+    public SensitivityComputationSchedulerHealthIndicator(SensitivityComputationScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Health health() {
+        return Health.up()
+            .withDetail("runningComputations", scheduler.getRunningComputations())
+            .withDetail("queuedComputations", scheduler.getQueuedComputations())
+            .withDetail("queueRemainingCapacity", scheduler.getQueueRemainingCapacity())
+            .withDetail("completedComputations", scheduler.getCompletedComputations())
+            .withDetail("rejectedComputations", scheduler.getRejectedComputations())
+            .withDetail("lastWaitTimeInMillis", scheduler.getLastWaitTimeInMillis())
+            .withDetail("meanWaitTimeInMillis", scheduler.getMeanWaitTimeInMillis())
+            .build();
+    }
+}
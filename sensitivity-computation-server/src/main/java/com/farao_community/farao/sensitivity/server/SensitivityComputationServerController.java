@@ -6,14 +6,35 @@
  */
 package com.farao_community.farao.sensitivity.server;
 
+import com.farao_community.farao.sensitivity.api.BinarySensitivityAnalysisResult;
+import com.farao_community.farao.sensitivity.api.SensitivityComputationJobStatus;
+import com.farao_community.farao.sensitivity.api.SensitivityResultFilter;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
 import org.springframework.http.codec.multipart.FilePart;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.UncheckedIOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
@@ -21,16 +42,191 @@ import reactor.core.publisher.Mono;
 @RestController
 @RequestMapping("/api/v1/sensitivity-computation")
 public class SensitivityComputationServerController {
+    private static final MediaType BINARY_RESULT_TYPE = MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE);
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
     private final SensitivityComputationServerService service;
+    private final SensitivityComputationWarmUp warmUp;
+    private final long maxDecompressedPartSize;
 
-    public SensitivityComputationServerController(SensitivityComputationServerService service) {
+    public SensitivityComputationServerController(SensitivityComputationServerService service, SensitivityComputationWarmUp warmUp,
+                                                  SensitivityComputationServerProperties properties) {
         this.service = service;
+        this.warmUp = warmUp;
+        this.maxDecompressedPartSize = properties.getMultipart().getMaxDecompressedSizePerPartInBytes();
     }
 
     @PostMapping
-    public Mono<ResponseEntity<Flux<DataBuffer>>> runComputation(FilePart networkFile,
-                                                                 FilePart inputsFile,
-                                                                 FilePart parametersFile) {
-        return Mono.just(ResponseEntity.ok(service.runComputation(networkFile, inputsFile, parametersFile)));
+    public Mono<ResponseEntity<Flux<DataBuffer>>> runComputation(@RequestPart(required = false) FilePart networkFile,
+                                                                 @RequestPart(required = false) String networkHash,
+                                                                 @RequestPart(required = false) FilePart modificationsFile,
+                                                                 @RequestPart FilePart inputsFile,
+                                                                 @RequestPart FilePart parametersFile,
+                                                                 @RequestPart(required = false) String resultFilter,
+                                                                 @RequestParam(required = false) Integer contingencyChunks,
+                                                                 ServerHttpRequest httpRequest,
+                                                                 ServerHttpResponse response) {
+        SensitivityComputationRequest request = new SensitivityComputationRequest(decode(networkFile), networkHash, decode(modificationsFile), null,
+            decode(inputsFile), decode(parametersFile), contingencyChunks, readResultFilter(resultFilter), warmUp.isWarmUpRequest(httpRequest));
+        MediaType resultType = getResultType(httpRequest);
+        return service.runComputation(request, resultType, response.bufferFactory())
+                .map(resultData -> ResponseEntity.ok().contentType(resultType).body(resultData));
+    }
+
+    @PostMapping(value = "/batch", produces = "application/x-ndjson")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> runBatch(@RequestPart(required = false) FilePart networkFile,
+                                                           @RequestPart(required = false) String networkHash,
+                                                           @RequestPart FilePart variantsFile,
+                                                           @RequestPart FilePart inputsFile,
+                                                           @RequestPart FilePart parametersFile,
+                                                           @RequestPart(required = false) String resultFilter,
+                                                           @RequestParam(required = false) Integer contingencyChunks,
+                                                           ServerHttpResponse response) {
+        SensitivityComputationRequest request = new SensitivityComputationRequest(decode(networkFile), networkHash, null, decode(variantsFile),
+            decode(inputsFile), decode(parametersFile), contingencyChunks, readResultFilter(resultFilter), false);
+        return service.runBatch(request, response.bufferFactory()).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/jobs")
+    public Mono<ResponseEntity<SensitivityComputationJobStatus>> submitJob(@RequestPart(required = false) FilePart networkFile,
+                                                                           @RequestPart(required = false) String networkHash,
+                                                                           @RequestPart(required = false) FilePart modificationsFile,
+                                                                           @RequestPart FilePart inputsFile,
+                                                                           @RequestPart FilePart parametersFile,
+                                                                           @RequestPart(required = false) String resultFilter,
+                                                                           @RequestParam(required = false) Integer contingencyChunks,
+                                                                           ServerHttpRequest httpRequest) {
+        SensitivityComputationRequest request = new SensitivityComputationRequest(decode(networkFile), networkHash, decode(modificationsFile), null,
+            decode(inputsFile), decode(parametersFile), contingencyChunks, readResultFilter(resultFilter), false);
+        return service.submitJob(request)
+                .map(status -> ResponseEntity.accepted()
+                        .location(UriComponentsBuilder.fromHttpRequest(httpRequest).replaceQuery(null).path("/{jobId}").buildAndExpand(status.getId()).toUri())
+                        .body(status));
+    }
+
+    /**
+     * Returns the job status, waiting up to the given time for the job to finish.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public Mono<ResponseEntity<SensitivityComputationJobStatus>> getJobStatus(@PathVariable String jobId,
+                                                                              @RequestParam(defaultValue = "0") int waitInSeconds) {
+        return service.getJobStatus(jobId, waitInSeconds).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<SensitivityComputationJobStatus> cancelJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(service.cancelJob(jobId));
+    }
+
+    /**
+     * Stored results are sent as is, with zero-copy file transfer and single range requests support,
+     * when the binary format is accepted. They are converted to JSON otherwise.
+     */
+    @GetMapping("/jobs/{jobId}/result")
+    public Mono<Void> downloadJobResult(@PathVariable String jobId, ServerHttpRequest httpRequest, ServerHttpResponse response) {
+        Path resultPath = service.getJobResult(jobId);
+        MediaType resultType = getResultType(httpRequest);
+        response.getHeaders().setContentType(resultType);
+        if (BINARY_RESULT_TYPE.equalsTypeAndSubtype(resultType)) {
+            return Mono.fromCallable(() -> Files.size(resultPath))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(resultSize -> writeFile(resultPath, resultSize, httpRequest, response));
+        }
+        return response.writeWith(service.readJobResultAsJson(resultPath, response.bufferFactory()));
+    }
+
+    @PostMapping("/networks")
+    public Mono<ResponseEntity<String>> cacheNetwork(@RequestPart FilePart networkFile) {
+        return service.cacheNetwork(decode(networkFile)).map(ResponseEntity::ok);
+    }
+
+    @RequestMapping(value = "/networks/{networkHash}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> checkNetworkCached(@PathVariable String networkHash) {
+        return service.isNetworkCached(networkHash) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Gzip encoded file parts are decompressed on the fly.
+     */
+    private FilePart decode(FilePart part) {
+        return DecompressingFilePart.decode(part, maxDecompressedPartSize);
+    }
+
+    private static SensitivityResultFilter readResultFilter(String resultFilter) {
+        if (resultFilter == null) {
+            return null;
+        }
+        try {
+            return SensitivityResultFilter.fromJson(resultFilter);
+        } catch (UncheckedIOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid result filter", e);
+        }
+    }
+
+    /**
+     * Multiple ranges are not supported, so the whole file is sent when several ones are requested.
+     * Invalid ranges, and ranges starting beyond the end of the file, are not satisfiable.
+     */
+    private static Mono<Void> writeFile(Path path, long size, ServerHttpRequest httpRequest, ServerHttpResponse response) {
+        response.getHeaders().set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        long position = 0;
+        long count = size;
+        List<HttpRange> ranges;
+        try {
+            ranges = httpRequest.getHeaders().getRange();
+        } catch (IllegalArgumentException e) {
+            return rejectRange(size, response);
+        }
+        if (ranges.size() == 1) {
+            position = ranges.get(0).getRangeStart(size);
+            count = ranges.get(0).getRangeEnd(size) - position + 1;
+            if (position >= size || count <= 0) {
+                return rejectRange(size, response);
+            }
+            response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+            response.getHeaders().set(HttpHeaders.CONTENT_RANGE, String.format("bytes %d-%d/%d", position, position + count - 1, size));
+        }
+        response.getHeaders().setContentLength(count);
+        if (response instanceof ZeroCopyHttpOutputMessage) {
+            return ((ZeroCopyHttpOutputMessage) response).writeWith(path, position, count);
+        }
+        long filePosition = position;
+        return response.writeWith(DataBufferUtils.takeUntilByteCount(
+            DataBufferUtils.readAsynchronousFileChannel(() -> AsynchronousFileChannel.open(path, StandardOpenOption.READ), filePosition, response.bufferFactory(), FILE_BUFFER_SIZE),
+            count));
+    }
+
+    private static Mono<Void> rejectRange(long size, ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        response.getHeaders().set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+        return response.setComplete();
+    }
+
+    /**
+     * Results are encoded in the binary format only when explicitly accepted by the client, JSON being the default.
+     */
+    private static MediaType getResultType(ServerHttpRequest httpRequest) {
+        List<MediaType> acceptedTypes = new ArrayList<>(httpRequest.getHeaders().getAccept());
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        return acceptedTypes.stream()
+                .filter(acceptedType -> acceptedType.isCompatibleWith(BINARY_RESULT_TYPE) || acceptedType.isCompatibleWith(MediaType.APPLICATION_JSON))
+                .findFirst()
+                .filter(BINARY_RESULT_TYPE::equalsTypeAndSubtype)
+                .orElse(MediaType.APPLICATION_JSON);
+    }
+
+    @ExceptionHandler(SensitivityComputationRejectedException.class)
+    public ResponseEntity<String> handleRejectedComputation(SensitivityComputationRejectedException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterInSeconds()))
+                .body(exception.getMessage());
+    }
+
+    /**
+     * Parts read in memory, such as the result filter, are bounded by {@code spring.codec.max-in-memory-size}.
+     */
+    @ExceptionHandler(DataBufferLimitException.class)
+    public ResponseEntity<String> handleTooLargePart(DataBufferLimitException exception) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(exception.getMessage());
     }
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@ConfigurationProperties("sensitivity-computation")
+public class SensitivityComputationServerProperties {
+    private final Scheduler scheduler = new Scheduler();
+    private final NetworkCache networkCache = new NetworkCache();
+    private final Jobs jobs = new Jobs();
+    private final WarmUp warmUp = new WarmUp();
+    private final Multipart multipart = new Multipart();
+    private int contingencyChunks = 1;
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public NetworkCache getNetworkCache() {
+        return networkCache;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public Multipart getMultipart() {
+        return multipart;
+    }
+
+    public int getContingencyChunks() {
+        return contingencyChunks;
+    }
+
+    public void setContingencyChunks(int contingencyChunks) {
+        this.contingencyChunks = contingencyChunks;
+    }
+
+    public static class Scheduler {
+        private int maxConcurrentRuns = 2;
+        private int queueCapacity = 8;
+        private int retryAfterInSeconds = 60;
+        private int batchParallelism = 4;
+        private int chunkParallelism = Runtime.getRuntime().availableProcessors();
+
+        public int getMaxConcurrentRuns() {
+            return maxConcurrentRuns;
+        }
+
+        public void setMaxConcurrentRuns(int maxConcurrentRuns) {
+            this.maxConcurrentRuns = maxConcurrentRuns;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getRetryAfterInSeconds() {
+            return retryAfterInSeconds;
+        }
+
+        public void setRetryAfterInSeconds(int retryAfterInSeconds) {
+            this.retryAfterInSeconds = retryAfterInSeconds;
+        }
+
+        public int getBatchParallelism() {
+            return batchParallelism;
+        }
+
+        public void setBatchParallelism(int batchParallelism) {
+            this.batchParallelism = batchParallelism;
+        }
+
+        public int getChunkParallelism() {
+            return chunkParallelism;
+        }
+
+        public void setChunkParallelism(int chunkParallelism) {
+            this.chunkParallelism = chunkParallelism;
+        }
+    }
+
+    public static class NetworkCache {
+        private boolean enabled = true;
+        private long maxWeightInBytes = 1024L * 1024L * 1024L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxWeightInBytes() {
+            return maxWeightInBytes;
+        }
+
+        public void setMaxWeightInBytes(long maxWeightInBytes) {
+            this.maxWeightInBytes = maxWeightInBytes;
+        }
+    }
+
+    public static class Jobs {
+        private String directory = System.getProperty("java.io.tmpdir");
+        private int resultTtlInSeconds = 3600;
+        private long maxDiskUsageInBytes = 10L * 1024L * 1024L * 1024L;
+        private int maxWaitInSeconds = 60;
+        private int evictionPeriodInSeconds = 60;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getResultTtlInSeconds() {
+            return resultTtlInSeconds;
+        }
+
+        public void setResultTtlInSeconds(int resultTtlInSeconds) {
+            this.resultTtlInSeconds = resultTtlInSeconds;
+        }
+
+        public long getMaxDiskUsageInBytes() {
+            return maxDiskUsageInBytes;
+        }
+
+        public void setMaxDiskUsageInBytes(long maxDiskUsageInBytes) {
+            this.maxDiskUsageInBytes = maxDiskUsageInBytes;
+        }
+
+        public int getMaxWaitInSeconds() {
+            return maxWaitInSeconds;
+        }
+
+        public void setMaxWaitInSeconds(int maxWaitInSeconds) {
+            this.maxWaitInSeconds = maxWaitInSeconds;
+        }
+
+        public int getEvictionPeriodInSeconds() {
+            return evictionPeriodInSeconds;
+        }
+
+        public void setEvictionPeriodInSeconds(int evictionPeriodInSeconds) {
+            this.evictionPeriodInSeconds = evictionPeriodInSeconds;
+        }
+    }
+
+    public static class WarmUp {
+        private boolean enabled = true;
+        private int iterations = 5;
+        private boolean exitOnCompletion = false;
+        private boolean useConfiguredProvider = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        /**
+         * Whether the server stops once warmed up, which is used to record the classes to archive for class data sharing.
+         */
+        public boolean isExitOnCompletion() {
+            return exitOnCompletion;
+        }
+
+        public void setExitOnCompletion(boolean exitOnCompletion) {
+            this.exitOnCompletion = exitOnCompletion;
+        }
+
+        /**
+         * Whether warm-up requests are computed by the configured provider, rather than by a stub one.
+         */
+        public boolean isUseConfiguredProvider() {
+            return useConfiguredProvider;
+        }
+
+        public void setUseConfiguredProvider(boolean useConfiguredProvider) {
+            this.useConfiguredProvider = useConfiguredProvider;
+        }
+    }
+
+    /**
+     * Limits of multipart request parts. File parts are spilled to disk, other parts are bounded by {@code spring.codec.max-in-memory-size}.
+     */
+    public static class Multipart {
+        private long maxDiskUsagePerPartInBytes = 1024L * 1024L * 1024L;
+        private int maxParts = 16;
+        private long maxDecompressedSizePerPartInBytes = 1024L * 1024L * 1024L;
+
+        public long getMaxDiskUsagePerPartInBytes() {
+            return maxDiskUsagePerPartInBytes;
+        }
+
+        public void setMaxDiskUsagePerPartInBytes(long maxDiskUsagePerPartInBytes) {
+            this.maxDiskUsagePerPartInBytes = maxDiskUsagePerPartInBytes;
+        }
+
+        public int getMaxParts() {
+            return maxParts;
+        }
+
+        public void setMaxParts(int maxParts) {
+            this.maxParts = maxParts;
+        }
+
+        /**
+         * Size of gzip encoded file parts once decompressed, beyond which requests are rejected.
+         */
+        public long getMaxDecompressedSizePerPartInBytes() {
+            return maxDecompressedSizePerPartInBytes;
+        }
+
+        public void setMaxDecompressedSizePerPartInBytes(long maxDecompressedSizePerPartInBytes) {
+            this.maxDecompressedSizePerPartInBytes = maxDecompressedSizePerPartInBytes;
+        }
+    }
+}
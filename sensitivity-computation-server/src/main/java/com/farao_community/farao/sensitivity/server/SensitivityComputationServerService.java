@@ -6,8 +6,18 @@
  */
 package com.farao_community.farao.sensitivity.server;
 
+import com.farao_community.farao.sensitivity.api.BatchResultEntry;
+import com.farao_community.farao.sensitivity.api.BinarySensitivityAnalysisResult;
 import com.farao_community.farao.sensitivity.api.InternalSensitivityInputsProvider;
+import com.farao_community.farao.sensitivity.api.JsonNetworkModifications;
 import com.farao_community.farao.sensitivity.api.JsonSensitivityInputs;
+import com.farao_community.farao.sensitivity.api.NetworkHashing;
+import com.farao_community.farao.sensitivity.api.NetworkModifications;
+import com.farao_community.farao.sensitivity.api.SensitivityAnalysisResultMerger;
+import com.farao_community.farao.sensitivity.api.SensitivityComputationJobStatus;
+import com.farao_community.farao.sensitivity.server.SensitivityComputationMetrics.Phase;
+import com.google.common.io.CountingOutputStream;
+import com.powsybl.computation.local.LocalComputationManager;
 import com.powsybl.iidm.import_.Importers;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.sensitivity.*;
@@ -16,13 +26,29 @@ import com.powsybl.sensitivity.json.JsonSensitivityAnalysisParameters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple4;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
@@ -31,37 +57,480 @@ import java.io.*;
 public class SensitivityComputationServerService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SensitivityComputationServerService.class);
+    static final int RESULT_CHUNK_SIZE = 64 * 1024;
+    private static final int INPUT_PREFETCH = 16;
+    private static final String DEFAULT_NETWORK_FILENAME = "network.xiidm";
+    private static final String JOB_REQUEST_DIRECTORY = "request";
+    private static final String JOB_NETWORK_DIRECTORY = "network";
+    private static final String JOB_MODIFICATIONS_FILENAME = "modifications.json";
+    private static final String JOB_INPUTS_FILENAME = "inputs.json";
+    private static final String JOB_PARAMETERS_FILENAME = "parameters.json";
+    private static final MediaType BINARY_RESULT_TYPE = MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE);
 
-    public Flux<DataBuffer> runComputation(FilePart networkFile, FilePart inputsFile, FilePart parametersFile) {
-        LOGGER.info("[start] sensitivity computation");
-        Network network = importNetwork(networkFile);
-        InternalSensitivityInputsProvider inputsProvider = importSensitivityInputsProvider(inputsFile);
-        SensitivityAnalysisParameters parameters = importParameters(parametersFile);
+    private final SensitivityComputationScheduler scheduler;
+    private final NetworkCache networkCache;
+    private final SensitivityComputationJobStore jobStore;
+    private final SensitivityComputationMetrics metrics;
+    private final int defaultContingencyChunks;
+    private final Duration maxJobWait;
+    private final SensitivityAnalysisProvider warmUpProvider;
+
+    public SensitivityComputationServerService(SensitivityComputationScheduler scheduler, NetworkCache networkCache, SensitivityComputationJobStore jobStore,
+                                               SensitivityComputationMetrics metrics, SensitivityComputationServerProperties properties) {
+        this.scheduler = scheduler;
+        this.networkCache = networkCache;
+        this.jobStore = jobStore;
+        this.metrics = metrics;
+        this.defaultContingencyChunks = properties.getContingencyChunks();
+        this.maxJobWait = Duration.ofSeconds(properties.getJobs().getMaxWaitInSeconds());
+        this.warmUpProvider = properties.getWarmUp().isUseConfiguredProvider() ? null : new WarmUpSensitivityAnalysisProvider();
+    }
+
+    public boolean isNetworkCached(String networkHash) {
+        return networkCache.contains(networkHash);
+    }
+
+    /**
+     * Imports the network in the cache, and returns its hash.
+     */
+    public Mono<String> cacheNetwork(FilePart networkFile) {
+        return importNetwork(networkFile).map(CachedNetwork::getHash);
+    }
+
+    /**
+     * Runs a sensitivity computation on the uploaded network, or on the cached network with the given hash
+     * when no network is uploaded. Network modifications, if any, are applied before the computation.
+     *
+     * The result is filtered as requested, then encoded in the binary format when requested, and in JSON otherwise.
+     * Filtering happens right after the computation, so that discarded values are released before the result is exported.
+     */
+    public Mono<Flux<DataBuffer>> runComputation(SensitivityComputationRequest request, MediaType resultType, DataBufferFactory bufferFactory) {
+        return checkNetworkReference(request)
+                .then(scheduler.schedule(() -> compute(request)))
+                .map(result -> turnToData(result, resultType, bufferFactory));
+    }
+
+    /**
+     * Runs one sensitivity computation per variant of the network, the variants being defined as modifications
+     * of the uploaded or cached network. Inputs and parameters are parsed once and shared by all variants.
+     *
+     * The batch is admitted and parsed as a single computation, whose slot is held until all the variant results are sent.
+     * Variant computations run concurrently on the batch pool, and their results are streamed as newline delimited JSON
+     * as soon as each one ends.
+     */
+    public Mono<Flux<DataBuffer>> runBatch(SensitivityComputationRequest request, DataBufferFactory bufferFactory) {
+        if (request.getVariantsFile() == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "A variants file must be provided"));
+        }
+        return checkNetworkReference(request)
+                .then(scheduler.scheduleHeld(() -> {
+                    Tuple4<CachedNetwork, Map<String, NetworkModifications>, InternalSensitivityInputsProvider, SensitivityAnalysisParameters> inputs = importBatchInputs(request);
+                    return Flux.fromIterable(inputs.getT2().entrySet())
+                            .flatMap(variant -> Mono.fromCallable(() -> computeBatchVariant(inputs.getT1(), variant.getKey(), variant.getValue(), inputs.getT3(), inputs.getT4(), request))
+                                    .subscribeOn(scheduler.getBatchScheduler()), scheduler.getBatchParallelism())
+                            .concatMap(entry -> DataBufferStreams.fromOutputStream(entry::writeLine, bufferFactory, RESULT_CHUNK_SIZE));
+                }));
+    }
+
+    /**
+     * Submits a sensitivity computation job, and returns its status as soon as the request parts are saved in the job directory.
+     *
+     * A cached network is resolved on submission and pinned by the job, so that its eviction from the cache
+     * while the job is queued does not make the job fail. Network import, parsing and computation then run
+     * in the job, admitted by the scheduler as any other computation.
+     * The result is filtered as requested, then stored in the binary format, whatever the format it is downloaded in.
+     * A job whose saved request parts do not fit in the disk quota of the job store, once finished jobs are evicted, is rejected.
+     */
+    public Mono<SensitivityComputationJobStatus> submitJob(SensitivityComputationRequest request) {
+        Mono<Optional<CachedNetwork>> pinnedNetwork = request.getNetworkFile() != null
+                ? Mono.just(Optional.empty())
+                : checkNetworkReference(request).then(getCachedNetwork(request.getNetworkHash())).map(Optional::of);
+        return pinnedNetwork.flatMap(cachedNetwork -> Mono.fromCallable(jobStore::create)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(job -> saveJobRequest(job, request)
+                        .then(checkJobDiskQuota())
+                        .then(startJob(job, request, cachedNetwork.orElse(null)))
+                        .doOnError(e -> jobStore.remove(job))
+                        .doOnCancel(() -> jobStore.remove(job))));
+    }
+
+    /**
+     * Returns the status of the job, once it is finished or after the given wait, bounded by the server maximum wait.
+     */
+    public Mono<SensitivityComputationJobStatus> getJobStatus(String jobId, int waitInSeconds) {
+        SensitivityComputationJob job = getJob(jobId);
+        Duration wait = Duration.ofSeconds(Math.max(0, waitInSeconds));
+        return job.awaitFinish(wait.compareTo(maxJobWait) < 0 ? wait : maxJobWait)
+                .then(Mono.fromSupplier(job::getStatus));
+    }
+
+    /**
+     * Cancels the job if unfinished, or discards it with its result otherwise.
+     */
+    public SensitivityComputationJobStatus cancelJob(String jobId) {
+        SensitivityComputationJob job = getJob(jobId);
+        if (job.cancel()) {
+            LOGGER.info("Sensitivity computation job '{}' cancelled", jobId);
+        } else {
+            jobStore.remove(job);
+        }
+        return job.getStatus();
+    }
+
+    /**
+     * Returns the path of the stored result of the job, which must have succeeded.
+     */
+    public Path getJobResult(String jobId) {
+        SensitivityComputationJob job = getJob(jobId);
+        if (job.getState() != SensitivityComputationJobStatus.State.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, String.format("Job '%s' has no result, its state is %s", jobId, job.getState()));
+        }
+        return job.getResultPath();
+    }
+
+    /**
+     * Converts a stored result into the JSON format.
+     */
+    public Flux<DataBuffer> readJobResultAsJson(Path resultPath, DataBufferFactory bufferFactory) {
+        return Mono.fromCallable(() -> {
+            try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(resultPath), RESULT_CHUNK_SIZE)) {
+                return BinarySensitivityAnalysisResult.read(inputStream);
+            }
+        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(result -> turnToData(result, MediaType.APPLICATION_JSON, bufferFactory));
+    }
+
+    private SensitivityComputationJob getJob(String jobId) {
+        return jobStore.get(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Job '%s' not found", jobId)));
+    }
+
+    /**
+     * Multipart request parts only live as long as the request, so they are saved in the job directory first.
+     */
+    private Mono<Void> saveJobRequest(SensitivityComputationJob job, SensitivityComputationRequest request) {
+        Path requestDirectory = job.getDirectory().resolve(JOB_REQUEST_DIRECTORY);
+        return Mono.fromCallable(() -> Files.createDirectories(requestDirectory.resolve(JOB_NETWORK_DIRECTORY)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.when(
+                        saveJobPart(request.getNetworkFile(), getJobNetworkPath(requestDirectory, request)),
+                        saveJobPart(request.getModificationsFile(), requestDirectory.resolve(JOB_MODIFICATIONS_FILENAME)),
+                        saveJobPart(request.getInputsFile(), requestDirectory.resolve(JOB_INPUTS_FILENAME)),
+                        saveJobPart(request.getParametersFile(), requestDirectory.resolve(JOB_PARAMETERS_FILENAME))));
+    }
+
+    private Mono<Void> checkJobDiskQuota() {
+        return Mono.fromCallable(jobStore::evictIfNeeded)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(fits -> Boolean.TRUE.equals(fits)
+                        ? Mono.<Void>empty()
+                        : Mono.error(new ResponseStatusException(HttpStatus.INSUFFICIENT_STORAGE, "Jobs disk quota exceeded")));
+    }
+
+    /**
+     * Deferred, as some parts open their target file as soon as the transfer is requested, before the job directory exists.
+     */
+    private static Mono<Void> saveJobPart(FilePart part, Path path) {
+        return part != null ? Mono.defer(() -> part.transferTo(path)) : Mono.empty();
+    }
+
+    private static Path getJobNetworkPath(Path requestDirectory, SensitivityComputationRequest request) {
+        return request.getNetworkFile() != null
+                ? requestDirectory.resolve(JOB_NETWORK_DIRECTORY).resolve(getNetworkFilename(request.getNetworkFile()))
+                : null;
+    }
+
+    /**
+     * Schedules the job computation. A computation rejected by the scheduler is signalled on subscription,
+     * in which case the job is discarded and the rejection returned instead of the job status.
+     */
+    private Mono<SensitivityComputationJobStatus> startJob(SensitivityComputationJob job, SensitivityComputationRequest request, CachedNetwork pinnedNetwork) {
+        return Mono.create(sink -> {
+            job.setComputation(scheduler.schedule(() -> computeJob(job, request, pinnedNetwork))
+                    .subscribe(null, error -> {
+                        if (error instanceof SensitivityComputationRejectedException) {
+                            sink.error(error);
+                        } else {
+                            LOGGER.error("Sensitivity computation job '{}' failed", job.getId(), error);
+                            job.fail(error.getMessage());
+                        }
+                    }));
+            sink.success(job.getStatus());
+        });
+    }
+
+    private Void computeJob(SensitivityComputationJob job, SensitivityComputationRequest request, CachedNetwork pinnedNetwork) throws IOException {
+        if (!job.start()) {
+            return null;
+        }
+        LOGGER.info("[start] sensitivity computation job '{}'", job.getId());
+        Path requestDirectory = job.getDirectory().resolve(JOB_REQUEST_DIRECTORY);
+        CachedNetwork cachedNetwork = pinnedNetwork != null ? pinnedNetwork : importNetwork(getJobNetworkPath(requestDirectory, request));
+        NetworkModifications modifications = request.getModificationsFile() != null
+                ? readJobPart(requestDirectory.resolve(JOB_MODIFICATIONS_FILENAME), JsonNetworkModifications::read)
+                : null;
+        InternalSensitivityInputsProvider inputsProvider = readJobPart(requestDirectory.resolve(JOB_INPUTS_FILENAME),
+            this::readSensitivityInputs);
+        SensitivityAnalysisParameters parameters = readJobPart(requestDirectory.resolve(JOB_PARAMETERS_FILENAME),
+            inputStream -> metrics.time(Phase.PARAMETERS_PARSE, () -> JsonSensitivityAnalysisParameters.read(inputStream)));
+        deleteTemporaryDirectory(requestDirectory);
+
+        SensitivityAnalysisResult result = request.getResultFilter().apply(runInChunks(cachedNetwork, modifications, inputsProvider, parameters, getContingencyChunks(request), request.isWarmUp()));
+        Path resultPath = job.getResultPath();
+        long exportStartTime = System.nanoTime();
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(resultPath), RESULT_CHUNK_SIZE)) {
+            BinarySensitivityAnalysisResult.write(result, outputStream);
+        }
+        long resultSize = Files.size(resultPath);
+        metrics.recordPhase(Phase.RESULT_EXPORT, System.nanoTime() - exportStartTime);
+        metrics.recordResultSize(resultSize);
+        LOGGER.info("[end] sensitivity computation job '{}'", job.getId());
+        if (job.succeed(resultSize)) {
+            jobStore.evictIfNeeded();
+        } else {
+            Files.deleteIfExists(resultPath);
+        }
+        return null;
+    }
+
+    private static <T> T readJobPart(Path path, Function<InputStream, T> reader) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path))) {
+            return reader.apply(inputStream);
+        }
+    }
 
-        SensitivityAnalysisResult result = SensitivityAnalysis.run(network, inputsProvider, inputsProvider.getContingencies(), parameters);
+    private Mono<Void> checkNetworkReference(SensitivityComputationRequest request) {
+        if (request.getNetworkFile() == null) {
+            if (request.getNetworkHash() == null) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either a network file or a network hash must be provided"));
+            }
+            if (!networkCache.contains(request.getNetworkHash())) {
+                return Mono.error(networkNotCached(request.getNetworkHash()));
+            }
+        }
+        return Mono.empty();
+    }
+
+    private SensitivityAnalysisResult compute(SensitivityComputationRequest request) {
+        LOGGER.info("[start] sensitivity computation");
+        Tuple4<CachedNetwork, Optional<NetworkModifications>, InternalSensitivityInputsProvider, SensitivityAnalysisParameters> inputs = Mono.zip(
+                getNetwork(request),
+                importModifications(request.getModificationsFile()),
+                importSensitivityInputsProvider(request.getInputsFile()),
+                importParameters(request.getParametersFile())
+        ).block();
+        SensitivityAnalysisResult result = runInChunks(inputs.getT1(), inputs.getT2().orElse(null), inputs.getT3(), inputs.getT4(), getContingencyChunks(request), request.isWarmUp());
         LOGGER.info("[end] sensitivity computation");
-        return turnToData(result);
+        return request.getResultFilter().apply(result);
+    }
+
+    private Tuple4<CachedNetwork, Map<String, NetworkModifications>, InternalSensitivityInputsProvider, SensitivityAnalysisParameters> importBatchInputs(SensitivityComputationRequest request) {
+        return Mono.zip(
+                getNetwork(request),
+                importVariants(request.getVariantsFile()),
+                importSensitivityInputsProvider(request.getInputsFile()),
+                importParameters(request.getParametersFile())
+        ).block();
+    }
+
+    private BatchResultEntry computeBatchVariant(CachedNetwork cachedNetwork, String variantId, NetworkModifications modifications,
+                                                 InternalSensitivityInputsProvider inputsProvider, SensitivityAnalysisParameters parameters, SensitivityComputationRequest request) {
+        LOGGER.info("[start] sensitivity computation on batch variant '{}'", variantId);
+        try {
+            SensitivityAnalysisResult result = runInChunks(cachedNetwork, modifications, inputsProvider, parameters, getContingencyChunks(request), request.isWarmUp());
+            LOGGER.info("[end] sensitivity computation on batch variant '{}'", variantId);
+            return new BatchResultEntry(variantId, request.getResultFilter().apply(result), null);
+        } catch (Exception e) {
+            LOGGER.error("Sensitivity computation on batch variant '{}' failed", variantId, e);
+            return new BatchResultEntry(variantId, null, e.getMessage());
+        }
+    }
+
+    private int getContingencyChunks(SensitivityComputationRequest request) {
+        return request.getContingencyChunks() != null ? request.getContingencyChunks() : defaultContingencyChunks;
+    }
+
+    /**
+     * Splits the contingencies into chunks computed in parallel, each one on its own variant, and merges
+     * the partial results into a result identical to the one of a single computation.
+     *
+     * Heap allocations of all the chunks are summed up, and recorded once for the whole computation.
+     */
+    private SensitivityAnalysisResult runInChunks(CachedNetwork cachedNetwork, NetworkModifications modifications,
+                                                  InternalSensitivityInputsProvider inputsProvider, SensitivityAnalysisParameters parameters, int contingencyChunks,
+                                                  boolean warmUp) {
+        LongAdder allocatedBytes = new LongAdder();
+        SensitivityAnalysisResult result;
+        int effectiveChunks = Math.min(contingencyChunks, inputsProvider.getContingencies().size());
+        if (effectiveChunks <= 1) {
+            result = runOnNewVariant(cachedNetwork, modifications, inputsProvider, parameters, warmUp, allocatedBytes);
+        } else {
+            List<InternalSensitivityInputsProvider> parts = inputsProvider.partition(effectiveChunks);
+            LOGGER.info("Sensitivity computation split into {} contingency chunks", parts.size());
+            List<SensitivityAnalysisResult> partialResults = Flux.fromIterable(parts)
+                    .flatMapSequential(part -> Mono.fromCallable(() -> runOnNewVariant(cachedNetwork, modifications, part, parameters, warmUp, allocatedBytes))
+                            .subscribeOn(scheduler.getChunkScheduler()))
+                    .collectList()
+                    .block();
+            result = SensitivityAnalysisResultMerger.merge(partialResults, inputsProvider.getContingencies());
+        }
+        metrics.recordAllocatedBytes(allocatedBytes.sum());
+        return result;
+    }
+
+    private SensitivityAnalysisResult runOnNewVariant(CachedNetwork cachedNetwork, NetworkModifications modifications,
+                                                      InternalSensitivityInputsProvider inputsProvider, SensitivityAnalysisParameters parameters,
+                                                      boolean warmUp, LongAdder allocatedBytes) {
+        long initialAllocatedBytes = metrics.getCurrentThreadAllocatedBytes();
+        String variantId = cachedNetwork.checkoutVariant();
+        try {
+            return cachedNetwork.read(() -> {
+                if (modifications != null) {
+                    modifications.apply(cachedNetwork.getNetwork());
+                }
+                return metrics.time(Phase.COMPUTATION, () -> analyse(cachedNetwork.getNetwork(), variantId, inputsProvider, parameters, warmUp));
+            });
+        } finally {
+            cachedNetwork.releaseVariant(variantId);
+            allocatedBytes.add(metrics.getCurrentThreadAllocatedBytes() - initialAllocatedBytes);
+        }
+    }
+
+    /**
+     * Warm-up requests are computed by a stub provider, unless the configured provider is explicitly asked for.
+     */
+    private SensitivityAnalysisResult analyse(Network network, String variantId, InternalSensitivityInputsProvider inputsProvider, SensitivityAnalysisParameters parameters,
+                                              boolean warmUp) {
+        if (warmUp && warmUpProvider != null) {
+            return warmUpProvider.run(network, variantId, inputsProvider, inputsProvider.getContingencies(), parameters, LocalComputationManager.getDefault()).join();
+        }
+        return SensitivityAnalysis.run(network, variantId, inputsProvider, inputsProvider.getContingencies(), parameters);
+    }
+
+    private Mono<CachedNetwork> getNetwork(SensitivityComputationRequest request) {
+        return request.getNetworkFile() != null ? importNetwork(request.getNetworkFile()) : getCachedNetwork(request.getNetworkHash());
+    }
+
+    private Mono<CachedNetwork> getCachedNetwork(String networkHash) {
+        return Mono.justOrEmpty(networkCache.get(networkHash))
+                .switchIfEmpty(Mono.error(() -> networkNotCached(networkHash)));
+    }
+
+    private static ResponseStatusException networkNotCached(String networkHash) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Network '%s' not found in cache", networkHash));
+    }
+
+    /**
+     * The network importer reads its whole input in memory when given a stream, so the network part
+     * is spilled to a temporary file first and imported from there. The import is skipped when a network
+     * with the same content is already cached.
+     */
+    private Mono<CachedNetwork> importNetwork(FilePart networkFile) {
+        return Mono.using(
+            () -> Files.createTempDirectory("sensi-network"),
+            tmpDir -> {
+                Path networkPath = tmpDir.resolve(getNetworkFilename(networkFile));
+                return networkFile.transferTo(networkPath)
+                        .then(Mono.fromCallable(() -> importNetwork(networkPath))
+                                .subscribeOn(Schedulers.boundedElastic()));
+            },
+            this::deleteTemporaryDirectory
+        );
+    }
+
+    private Mono<Optional<NetworkModifications>> importModifications(FilePart modificationsFile) {
+        if (modificationsFile == null) {
+            return Mono.just(Optional.empty());
+        }
+        return Mono.fromCallable(() -> {
+            try (InputStream inputStream = DataBufferStreams.toInputStream(modificationsFile.content(), INPUT_PREFETCH)) {
+                return Optional.of(JsonNetworkModifications.read(inputStream));
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Map<String, NetworkModifications>> importVariants(FilePart variantsFile) {
+        return Mono.fromCallable(() -> {
+            try (InputStream inputStream = DataBufferStreams.toInputStream(variantsFile.content(), INPUT_PREFETCH)) {
+                return JsonNetworkModifications.readVariants(inputStream);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<InternalSensitivityInputsProvider> importSensitivityInputsProvider(FilePart inputsFile) {
+        return Mono.fromCallable(() -> {
+            try (InputStream inputStream = DataBufferStreams.toInputStream(inputsFile.content(), INPUT_PREFETCH)) {
+                return readSensitivityInputs(inputStream);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Parses the inputs, recording the size of the request as received, whatever the way it is then computed.
+     */
+    private InternalSensitivityInputsProvider readSensitivityInputs(InputStream inputStream) {
+        InternalSensitivityInputsProvider inputsProvider = metrics.time(Phase.INPUTS_PARSE, () -> JsonSensitivityInputs.read(inputStream));
+        metrics.recordFactors(inputsProvider.getListedFactorsCount());
+        metrics.recordContingencies(inputsProvider.getContingencies().size());
+        return inputsProvider;
+    }
+
+    private Mono<SensitivityAnalysisParameters> importParameters(FilePart parametersFile) {
+        return Mono.fromCallable(() -> {
+            try (InputStream inputStream = DataBufferStreams.toInputStream(parametersFile.content(), INPUT_PREFETCH)) {
+                return metrics.time(Phase.PARAMETERS_PARSE, () -> JsonSensitivityAnalysisParameters.read(inputStream));
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private CachedNetwork importNetwork(Path networkPath) throws IOException {
+        long networkSize = Files.size(networkPath);
+        metrics.recordNetworkSize(networkSize);
+        return networkCache.getOrImport(hash(networkPath), () -> metrics.time(Phase.NETWORK_IMPORT, () -> Importers.loadNetwork(networkPath)), networkSize);
+    }
+
+    private static String hash(Path networkPath) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(networkPath)) {
+            return NetworkHashing.hash(inputStream);
+        }
     }
 
-    private Network importNetwork(FilePart networkFile) {
-        return DataBufferUtils.join(networkFile.content())
-                .map(dataBuffer -> Importers.loadNetwork(networkFile.filename(), dataBuffer.asInputStream())).toFuture().join();
+    private static String getNetworkFilename(FilePart networkFile) {
+        String filename = networkFile.filename();
+        if (filename == null || filename.isBlank()) {
+            return DEFAULT_NETWORK_FILENAME;
+        }
+        return Paths.get(filename).getFileName().toString();
     }
 
-    private InternalSensitivityInputsProvider importSensitivityInputsProvider(FilePart inputsFile) {
-        return DataBufferUtils.join(inputsFile.content())
-                .map(dataBuffer -> JsonSensitivityInputs.read(dataBuffer.asInputStream())).toFuture().join();
+    private void deleteTemporaryDirectory(Path tmpDir) {
+        try {
+            FileSystemUtils.deleteRecursively(tmpDir);
+        } catch (IOException e) {
+            LOGGER.warn("Temporary directory '{}' could not be deleted", tmpDir, e);
+        }
     }
 
-    private SensitivityAnalysisParameters importParameters(FilePart parametersFile) {
-        return DataBufferUtils.join(parametersFile.content())
-                .map(dataBuffer -> JsonSensitivityAnalysisParameters.read(dataBuffer.asInputStream())).toFuture().join();
+    private Flux<DataBuffer> turnToData(SensitivityAnalysisResult sensitivityComputationResults, MediaType resultType, DataBufferFactory bufferFactory) {
+        return DataBufferStreams.fromOutputStream(outputStream -> {
+            long startTime = System.nanoTime();
+            CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+            export(sensitivityComputationResults, resultType, countingOutputStream);
+            metrics.recordPhase(Phase.RESULT_EXPORT, System.nanoTime() - startTime);
+            metrics.recordResultSize(countingOutputStream.getCount());
+        }, bufferFactory, RESULT_CHUNK_SIZE);
     }
 
-    private Flux<DataBuffer> turnToData(SensitivityAnalysisResult sensitivityComputationResults) {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        Writer writer = new OutputStreamWriter(byteArrayOutputStream);
-        SensitivityAnalysisResultExporters.export(sensitivityComputationResults, writer, "JSON");
-        return DataBufferUtils.readInputStream(() -> new ByteArrayInputStream(byteArrayOutputStream.toByteArray()), new DefaultDataBufferFactory(), 1024);
+    private static void export(SensitivityAnalysisResult sensitivityComputationResults, MediaType resultType, OutputStream outputStream) {
+        if (BINARY_RESULT_TYPE.equalsTypeAndSubtype(resultType)) {
+            BinarySensitivityAnalysisResult.write(sensitivityComputationResults, outputStream);
+            return;
+        }
+        try (Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+            SensitivityAnalysisResultExporters.export(sensitivityComputationResults, writer, "JSON");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
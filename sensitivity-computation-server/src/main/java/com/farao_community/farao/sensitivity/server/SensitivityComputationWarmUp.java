@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.farao_community.farao.sensitivity.api.BinarySensitivityAnalysisResult;
+import com.farao_community.farao.sensitivity.api.JsonSensitivityInputs;
+import com.farao_community.farao.sensitivity.api.NetworkHashing;
+import com.powsybl.contingency.BranchContingency;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.import_.Importers;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.SensitivityAnalysisParameters;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.factors.BranchFlowPerInjectionIncrease;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.InjectionIncrease;
+import com.powsybl.sensitivity.json.JsonSensitivityAnalysisParameters;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Sends a few sensitivity computation requests on a bundled network to the server itself when it starts,
+ * so that classes loaded lazily by the first computation (multipart parsing, network importers, Jackson modules,
+ * sensitivity analysis provider, result exporters) are loaded and their code warmed up before the first request.
+ * Requests go through the HTTP endpoint as any client request, results being asked in turn in JSON and binary formats.
+ * They carry a token known only to this process, and are computed by a stub provider unless the configured one is asked for.
+ * Once done, the warm-up network is evicted from the cache and the computation meters are reset.
+ *
+ * Application runners are called before the application is marked ready, so the readiness probe only reports
+ * the server as ready once the warm-up has ended. A failed warm-up is logged and does not prevent the server from starting,
+ * but makes it exit with an error status when it is asked to exit on completion.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@Component
+public class SensitivityComputationWarmUp implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensitivityComputationWarmUp.class);
+    private static final String NETWORK_RESOURCE = "/warm-up/network.xiidm";
+    private static final String NETWORK_FILENAME = "network.xiidm";
+    private static final String COMPUTATION_PATH = "/api/v1/sensitivity-computation";
+    private static final String TOKEN_HEADER = "X-Sensitivity-Warm-Up-Token";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+    private static final List<MediaType> RESULT_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE));
+
+    private final ConfigurableApplicationContext context;
+    private final WebClient.Builder webClientBuilder;
+    private final NetworkCache networkCache;
+    private final SensitivityComputationMetrics metrics;
+    private final MeterRegistry registry;
+    private final SensitivityComputationServerProperties.WarmUp properties;
+    private final String token = UUID.randomUUID().toString();
+    private volatile boolean failed = false;
+
+    public SensitivityComputationWarmUp(ConfigurableApplicationContext context, WebClient.Builder webClientBuilder, NetworkCache networkCache,
+                                        SensitivityComputationMetrics metrics, MeterRegistry registry, SensitivityComputationServerProperties properties) {
+        this.context = context;
+        this.webClientBuilder = webClientBuilder;
+        this.networkCache = networkCache;
+        this.metrics = metrics;
+        this.registry = registry;
+        this.properties = properties.getWarmUp();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        byte[] networkBytes = null;
+        try {
+            WebClient webClient = webClientBuilder.baseUrl("http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port")).build();
+            networkBytes = readNetwork();
+            MultipartBodyBuilder body = createBody(networkBytes);
+            for (int i = 0; i < properties.getIterations(); i++) {
+                warmUp(webClient, body, RESULT_TYPES.get(i % RESULT_TYPES.size()));
+            }
+            LOGGER.info("Warm-up done in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+        } catch (Exception e) {
+            failed = true;
+            LOGGER.warn("Warm-up failed, first computations may be slower", e);
+        } finally {
+            if (networkBytes != null) {
+                networkCache.evict(NetworkHashing.hash(networkBytes));
+            }
+            resetMeters();
+        }
+    }
+
+    /**
+     * Whether the request was sent by the warm-up of this server.
+     */
+    public boolean isWarmUpRequest(ServerHttpRequest request) {
+        return token.equals(request.getHeaders().getFirst(TOKEN_HEADER));
+    }
+
+    /**
+     * Stops the server once warmed up when requested, closing the context as it would be on shutdown,
+     * with an error status if the warm-up failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void exitIfRequested() {
+        if (properties.isExitOnCompletion()) {
+            System.exit(SpringApplication.exit(context, () -> failed ? 1 : 0));
+        }
+    }
+
+    private void resetMeters() {
+        metrics.reset();
+        registry.find("http.server.requests").tag("uri", COMPUTATION_PATH).meters().forEach(registry::remove);
+    }
+
+    private void warmUp(WebClient webClient, MultipartBodyBuilder body, MediaType resultType) {
+        webClient.post()
+            .uri(COMPUTATION_PATH)
+            .header(TOKEN_HEADER, token)
+            .accept(resultType)
+            .body(BodyInserters.fromMultipartData(body.build()))
+            .retrieve()
+            .bodyToFlux(DataBuffer.class)
+            .doOnNext(DataBufferUtils::release)
+            .then()
+            .block(REQUEST_TIMEOUT);
+    }
+
+    private static byte[] readNetwork() throws IOException {
+        try (InputStream inputStream = SensitivityComputationWarmUp.class.getResourceAsStream(NETWORK_RESOURCE)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static MultipartBodyBuilder createBody(byte[] networkBytes) {
+        Network network = Importers.loadNetwork(NETWORK_FILENAME, new ByteArrayInputStream(networkBytes));
+        ByteArrayOutputStream parametersStream = new ByteArrayOutputStream();
+        JsonSensitivityAnalysisParameters.write(new SensitivityAnalysisParameters(), parametersStream);
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("networkFile", networkBytes, MediaType.APPLICATION_XML).filename(NETWORK_FILENAME);
+        builder.part("inputsFile", JsonSensitivityInputs.write(SensitivityComputationWarmUp::createFactors, network, createContingencies(network)),
+            MediaType.APPLICATION_JSON).filename("inputs.json");
+        builder.part("parametersFile", parametersStream.toByteArray(), MediaType.APPLICATION_JSON).filename("parameters.json");
+        return builder;
+    }
+
+    private static List<SensitivityFactor> createFactors(Network network) {
+        List<SensitivityFactor> factors = new ArrayList<>();
+        network.getBranchStream().forEach(branch -> network.getGeneratorStream().forEach(generator -> factors.add(new BranchFlowPerInjectionIncrease(
+            new BranchFlow(branch.getId(), branch.getId(), branch.getId()),
+            new InjectionIncrease(generator.getId(), generator.getId(), generator.getId())))));
+        return factors;
+    }
+
+    private static List<Contingency> createContingencies(Network network) {
+        return network.getBranchStream()
+            .map(Identifiable::getId)
+            .map(branchId -> new Contingency(branchId, new BranchContingency(branchId)))
+            .collect(Collectors.toList());
+    }
+}
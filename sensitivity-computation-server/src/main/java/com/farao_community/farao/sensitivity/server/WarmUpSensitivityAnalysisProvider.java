@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.powsybl.computation.ComputationManager;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sensitivity analysis run by warm-up requests, so that the server warms up without the configured provider.
+ *
+ * Factors are listed as the configured provider would, and all their values are zero.
+ * It is not registered as a service, so it is never looked up as the default provider.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class WarmUpSensitivityAnalysisProvider implements SensitivityAnalysisProvider {
+
+    @Override
+    public CompletableFuture<SensitivityAnalysisResult> run(Network network, String workingVariantId, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters, ComputationManager computationManager) {
+        network.getVariantManager().setWorkingVariant(workingVariantId);
+        List<SensitivityFactor> commonFactors = factorsProvider.getCommonFactors(network);
+        List<SensitivityFactor> basecaseFactors = new ArrayList<>(commonFactors);
+        basecaseFactors.addAll(factorsProvider.getAdditionalFactors(network));
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        for (Contingency contingency : contingencies) {
+            List<SensitivityFactor> contingencyFactors = new ArrayList<>(commonFactors);
+            contingencyFactors.addAll(factorsProvider.getAdditionalFactors(network, contingency.getId()));
+            contingenciesValues.put(contingency.getId(), createValues(contingencyFactors));
+        }
+        return CompletableFuture.completedFuture(new SensitivityAnalysisResult(true, Collections.emptyMap(), "", createValues(basecaseFactors), contingenciesValues));
+    }
+
+    private static List<SensitivityValue> createValues(List<SensitivityFactor> factors) {
+        List<SensitivityValue> values = new ArrayList<>(factors.size());
+        for (SensitivityFactor factor : factors) {
+            values.add(new SensitivityValue(factor, 0., 0., 0.));
+        }
+        return values;
+    }
+
+    @Override
+    public String getName() {
+        return "WarmUpSensitivityAnalysis";
+    }
+
+    @Override
+    public String getVersion() {
+        return "1.0.0";
+    }
+}
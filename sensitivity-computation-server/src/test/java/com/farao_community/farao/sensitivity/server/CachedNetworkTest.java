@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.powsybl.iidm.import_.Importers;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManagerConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class CachedNetworkTest {
+    private static CachedNetwork createCachedNetwork() {
+        Network network = Importers.loadNetwork("network.xiidm", CachedNetworkTest.class.getResourceAsStream("/warm-up/network.xiidm"));
+        return new CachedNetwork("hash", network, 1);
+    }
+
+    @Test
+    void checkThatReleasedVariantsAreReusedAndReset() {
+        CachedNetwork cachedNetwork = createCachedNetwork();
+        Network network = cachedNetwork.getNetwork();
+
+        String firstVariantId = cachedNetwork.checkoutVariant();
+        String secondVariantId = cachedNetwork.checkoutVariant();
+        assertNotEquals(firstVariantId, secondVariantId);
+        assertEquals(secondVariantId, network.getVariantManager().getWorkingVariantId());
+        network.getGenerator("G1").setTargetP(100.);
+        cachedNetwork.releaseVariant(secondVariantId);
+
+        assertEquals(secondVariantId, cachedNetwork.checkoutVariant());
+        assertEquals(600., network.getGenerator("G1").getTargetP());
+        assertEquals(3, network.getVariantManager().getVariantIds().size());
+
+        network.getVariantManager().setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
+        assertEquals(600., network.getGenerator("G1").getTargetP());
+    }
+}
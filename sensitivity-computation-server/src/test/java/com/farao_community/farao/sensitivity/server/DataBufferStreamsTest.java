@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class DataBufferStreamsTest {
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(new UnpooledByteBufAllocator(false));
+    private final List<ByteBuf> emittedBuffers = new CopyOnWriteArrayList<>();
+
+    private Flux<DataBuffer> createContent(int bufferCount, AtomicBoolean cancelled) {
+        return Flux.range(0, bufferCount)
+            .map(i -> {
+                byte value = i.byteValue();
+                DataBuffer buffer = bufferFactory.allocateBuffer(4).write(new byte[] {value, value, value, value});
+                emittedBuffers.add(NettyDataBufferFactory.toByteBuf(buffer));
+                return buffer;
+            })
+            .doOnCancel(() -> cancelled.set(true));
+    }
+
+    @Test
+    void checkThatContentIsReadAndReleased() throws IOException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        byte[] bytes;
+        try (InputStream inputStream = DataBufferStreams.toInputStream(createContent(10, cancelled), 2)) {
+            bytes = inputStream.readAllBytes();
+        }
+
+        assertEquals(40, bytes.length);
+        assertEquals(9, bytes[39]);
+        assertFalse(cancelled.get());
+        assertEquals(10, emittedBuffers.size());
+        emittedBuffers.forEach(buffer -> assertEquals(0, buffer.refCnt()));
+    }
+
+    @Test
+    void checkThatClosingCancelsContentAndReleasesPendingBuffers() throws IOException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        InputStream inputStream = DataBufferStreams.toInputStream(createContent(1000, cancelled), 4);
+        assertEquals(0, inputStream.read());
+        inputStream.close();
+
+        assertTrue(cancelled.get());
+        assertEquals(4, emittedBuffers.size());
+        emittedBuffers.forEach(buffer -> assertEquals(0, buffer.refCnt()));
+        assertThrows(IOException.class, inputStream::read);
+    }
+
+    @Test
+    void checkThatContentErrorIsRethrown() throws IOException {
+        Flux<DataBuffer> content = createContent(2, new AtomicBoolean()).concatWith(Flux.error(new IllegalStateException("Broken content")));
+        try (InputStream inputStream = DataBufferStreams.toInputStream(content, 4)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, inputStream::readAllBytes);
+            assertEquals("Broken content", e.getMessage());
+        }
+        emittedBuffers.forEach(buffer -> assertEquals(0, buffer.refCnt()));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+class SensitivityComputationJobStoreTest {
+    private static final int PART_SIZE = 600;
+
+    private static SensitivityComputationJobStore createStore(Path directory) {
+        SensitivityComputationServerProperties properties = new SensitivityComputationServerProperties();
+        properties.getJobs().setDirectory(directory.toString());
+        properties.getJobs().setMaxDiskUsageInBytes(1000);
+        properties.getJobs().setEvictionPeriodInSeconds(3600);
+        return new SensitivityComputationJobStore(properties);
+    }
+
+    private static void writePart(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[PART_SIZE]);
+    }
+
+    @Test
+    void checkThatSavedRequestPartsOfUnfinishedJobsCountInDiskQuota(@TempDir Path directory) throws IOException {
+        SensitivityComputationJobStore store = createStore(directory);
+        try {
+            SensitivityComputationJob finishedJob = store.create();
+            writePart(finishedJob.getResultPath());
+            assertTrue(finishedJob.start());
+            assertTrue(finishedJob.succeed(PART_SIZE));
+            SensitivityComputationJob queuedJob = store.create();
+            writePart(queuedJob.getDirectory().resolve("request").resolve("inputs.json"));
+
+            assertTrue(store.evictIfNeeded());
+            assertFalse(store.get(finishedJob.getId()).isPresent());
+            assertFalse(Files.exists(finishedJob.getDirectory()));
+            assertTrue(store.get(queuedJob.getId()).isPresent());
+
+            writePart(queuedJob.getDirectory().resolve("request").resolve("parameters.json"));
+            assertFalse(store.evictIfNeeded());
+            assertTrue(store.get(queuedJob.getId()).isPresent());
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void checkThatJobsFittingInDiskQuotaAreKept(@TempDir Path directory) throws IOException {
+        SensitivityComputationJobStore store = createStore(directory);
+        try {
+            SensitivityComputationJob finishedJob = store.create();
+            writePart(finishedJob.getResultPath());
+            assertTrue(finishedJob.start());
+            assertTrue(finishedJob.succeed(PART_SIZE));
+
+            assertTrue(store.evictIfNeeded());
+            assertTrue(store.get(finishedJob.getId()).isPresent());
+        } finally {
+            store.shutdown();
+        }
+    }
+}
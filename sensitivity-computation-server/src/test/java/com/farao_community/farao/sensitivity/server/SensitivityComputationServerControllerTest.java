@@ -0,0 +1,760 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.farao_community.farao.sensitivity.api.BatchResultEntry;
+import com.farao_community.farao.sensitivity.api.BinarySensitivityAnalysisResult;
+import com.farao_community.farao.sensitivity.api.JsonNetworkModifications;
+import com.farao_community.farao.sensitivity.api.JsonSensitivityInputs;
+import com.farao_community.farao.sensitivity.api.NetworkModifications;
+import com.farao_community.farao.sensitivity.api.SensitivityComputationJobStatus;
+import com.farao_community.farao.sensitivity.api.SensitivityComputationJobStatus.State;
+import com.farao_community.farao.sensitivity.api.SensitivityResultFilter;
+import com.farao_community.farao.sensitivity.server.SensitivityComputationMetrics.Phase;
+import com.powsybl.contingency.BranchContingency;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.import_.Importers;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.SensitivityAnalysisParameters;
+import com.powsybl.sensitivity.SensitivityAnalysisResult;
+import com.powsybl.sensitivity.SensitivityFactor;
+import com.powsybl.sensitivity.SensitivityValue;
+import com.powsybl.sensitivity.factors.BranchFlowPerInjectionIncrease;
+import com.powsybl.sensitivity.factors.functions.BranchFlow;
+import com.powsybl.sensitivity.factors.variables.InjectionIncrease;
+import com.powsybl.sensitivity.json.JsonSensitivityAnalysisParameters;
+import com.powsybl.sensitivity.json.SensitivityAnalysisResultJsonSerializer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "sensitivity-computation.warm-up.enabled=false",
+    "sensitivity-computation.scheduler.max-concurrent-runs=" + SensitivityComputationServerControllerTest.MAX_CONCURRENT_RUNS,
+    "sensitivity-computation.scheduler.queue-capacity=1",
+    "sensitivity-computation.multipart.max-decompressed-size-per-part-in-bytes=" + SensitivityComputationServerControllerTest.MAX_DECOMPRESSED_PART_SIZE
+})
+@AutoConfigureWebTestClient(timeout = "PT1M")
+class SensitivityComputationServerControllerTest {
+    private static final String COMPUTATION_URI = "/api/v1/sensitivity-computation";
+    private static final String JOBS_URI = COMPUTATION_URI + "/jobs";
+    static final int MAX_CONCURRENT_RUNS = 2;
+    static final int MAX_DECOMPRESSED_PART_SIZE = 4 * 1024 * 1024;
+    private static final byte[] NETWORK = readResource("/warm-up/network.xiidm");
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private SensitivityComputationScheduler scheduler;
+    @Autowired
+    private SensitivityComputationJobStore jobStore;
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeAll
+    static void setUpPlatformConfig() {
+        TestSensitivityAnalysisProvider.setAsDefault();
+    }
+
+    private static byte[] readResource(String name) {
+        try (InputStream inputStream = SensitivityComputationServerControllerTest.class.getResourceAsStream(name)) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Network importNetwork() {
+        return Importers.loadNetwork("network.xiidm", new ByteArrayInputStream(NETWORK));
+    }
+
+    private static byte[] createInputs(int contingencyCount) {
+        return createInputs(contingencyCount, 1);
+    }
+
+    /**
+     * Flows on all the lines per injection increase on all the generators and loads, each factor being
+     * repeated the given number of times, with the given number of contingencies defined on the lines in turn.
+     */
+    private static byte[] createInputs(int contingencyCount, int factorCopies) {
+        Network network = importNetwork();
+        List<String> branchIds = network.getBranchStream().map(Identifiable::getId).collect(Collectors.toList());
+        List<String> injectionIds = new ArrayList<>();
+        network.getGeneratorStream().forEach(generator -> injectionIds.add(generator.getId()));
+        network.getLoadStream().forEach(load -> injectionIds.add(load.getId()));
+        List<SensitivityFactor> factors = new ArrayList<>();
+        for (String branchId : branchIds) {
+            for (String injectionId : injectionIds) {
+                factors.addAll(Collections.nCopies(factorCopies, new BranchFlowPerInjectionIncrease(new BranchFlow(branchId, branchId, branchId), new InjectionIncrease(injectionId, injectionId, injectionId))));
+            }
+        }
+        List<Contingency> contingencies = new ArrayList<>();
+        for (int i = 0; i < contingencyCount; i++) {
+            contingencies.add(new Contingency("co" + i, new BranchContingency(branchIds.get(i % branchIds.size()))));
+        }
+        return JsonSensitivityInputs.write(networkInput -> factors, network, contingencies);
+    }
+
+    private static byte[] createParameters() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JsonSensitivityAnalysisParameters.write(new SensitivityAnalysisParameters(), outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static MultipartBodyBuilder createBody(byte[] inputs) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("networkFile", NETWORK, MediaType.APPLICATION_XML).filename("network.xiidm");
+        builder.part("inputsFile", inputs, MediaType.APPLICATION_JSON).filename("inputs.json");
+        builder.part("parametersFile", createParameters(), MediaType.APPLICATION_JSON).filename("parameters.json");
+        return builder;
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Body with the network and inputs parts gzip compressed, as uploaded by clients with request compression enabled.
+     */
+    private static MultipartBodyBuilder createCompressedBody(byte[] inputs, String encoding) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("networkFile", gzip(NETWORK), MediaType.APPLICATION_XML).filename("network.xiidm")
+            .header(HttpHeaders.CONTENT_ENCODING, encoding);
+        builder.part("inputsFile", gzip(inputs), MediaType.APPLICATION_JSON).filename("inputs.json")
+            .header(HttpHeaders.CONTENT_ENCODING, encoding);
+        builder.part("parametersFile", createParameters(), MediaType.APPLICATION_JSON).filename("parameters.json");
+        return builder;
+    }
+
+    private static MultipartBodyBuilder createCachedBody(String networkHash, byte[] inputs) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("networkHash", networkHash, MediaType.TEXT_PLAIN);
+        builder.part("inputsFile", inputs, MediaType.APPLICATION_JSON).filename("inputs.json");
+        builder.part("parametersFile", createParameters(), MediaType.APPLICATION_JSON).filename("parameters.json");
+        return builder;
+    }
+
+    private static MultipartBodyBuilder createModifiedBody(String networkHash, NetworkModifications modifications, byte[] inputs) {
+        MultipartBodyBuilder builder = createCachedBody(networkHash, inputs);
+        builder.part("modificationsFile", JsonNetworkModifications.write(modifications), MediaType.APPLICATION_JSON).filename("modifications.json");
+        return builder;
+    }
+
+    private String cacheNetwork() {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("networkFile", NETWORK, MediaType.APPLICATION_XML).filename("network.xiidm");
+        return webTestClient.post()
+            .uri(COMPUTATION_URI + "/networks")
+            .bodyValue(builder.build())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private SensitivityAnalysisResult runComputation(String uri, MultipartBodyBuilder body) {
+        byte[] resultBytes = webTestClient.mutate()
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+            .build()
+            .post()
+            .uri(uri)
+            .bodyValue(body.build())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+        return readResult(resultBytes);
+    }
+
+    private SensitivityComputationJobStatus submitJob(MultipartBodyBuilder body) {
+        return webTestClient.post()
+            .uri(JOBS_URI)
+            .bodyValue(body.build())
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectHeader().exists(HttpHeaders.LOCATION)
+            .expectBody(SensitivityComputationJobStatus.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private SensitivityComputationJobStatus getJobStatus(String jobId, int waitInSeconds) {
+        return webTestClient.get()
+            .uri(JOBS_URI + "/{jobId}?waitInSeconds={wait}", jobId, waitInSeconds)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(SensitivityComputationJobStatus.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private SensitivityComputationJobStatus cancelJob(String jobId) {
+        return webTestClient.delete()
+            .uri(JOBS_URI + "/{jobId}", jobId)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(SensitivityComputationJobStatus.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private static SensitivityAnalysisResult readResult(byte[] resultBytes) {
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(resultBytes), StandardCharsets.UTF_8)) {
+            return SensitivityAnalysisResultJsonSerializer.read(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Values of the result as comparable strings, indexed by state.
+     */
+    private static Map<String, List<String>> getValues(SensitivityAnalysisResult result) {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        values.put("basecase", toStrings(result.getSensitivityValues()));
+        result.getSensitivityValuesContingencies().forEach((contingencyId, contingencyValues) -> values.put(contingencyId, toStrings(contingencyValues)));
+        return values;
+    }
+
+    private static List<String> toStrings(Collection<SensitivityValue> values) {
+        return values.stream()
+            .map(value -> value.getFactor().getFunction().getId() + "/" + value.getFactor().getVariable().getId() + "=" + value.getValue() + "," + value.getFunctionReference())
+            .collect(Collectors.toList());
+    }
+
+    private static int countValues(SensitivityAnalysisResult result) {
+        return result.getSensitivityValues().size() + result.getSensitivityValuesContingencies().values().stream().mapToInt(List::size).sum();
+    }
+
+    private void awaitIdleScheduler() throws InterruptedException {
+        while (scheduler.getRunningComputations() > 0 || scheduler.getQueuedComputations() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void checkThatComputationIsRun() {
+        SensitivityAnalysisResult result = runComputation(COMPUTATION_URI, createBody(createInputs(3)));
+
+        assertTrue(result.isOk());
+        assertEquals(12, result.getSensitivityValues().size());
+        assertEquals(List.of("co0", "co1", "co2"), new ArrayList<>(result.getSensitivityValuesContingencies().keySet()));
+        assertEquals(601., result.getSensitivityValuesContingencies().get("co0").get(0).getValue());
+    }
+
+    @Test
+    void checkThatResultFormatIsNegotiated() {
+        byte[] inputs = createInputs(3);
+        byte[] jsonBytes = webTestClient.post()
+            .uri(COMPUTATION_URI)
+            .bodyValue(createBody(inputs).build())
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(MediaType.APPLICATION_JSON)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+        byte[] binaryBytes = webTestClient.post()
+            .uri(COMPUTATION_URI)
+            .accept(MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE), MediaType.APPLICATION_JSON)
+            .bodyValue(createBody(inputs).build())
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(BinarySensitivityAnalysisResult.MEDIA_TYPE)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+        SensitivityAnalysisResult binaryResult = BinarySensitivityAnalysisResult.read(new ByteArrayInputStream(binaryBytes));
+        assertEquals(getValues(readResult(jsonBytes)), getValues(binaryResult));
+        assertSame(binaryResult.getSensitivityValues().iterator().next().getFactor(), binaryResult.getSensitivityValuesContingencies().get("co2").get(0).getFactor());
+    }
+
+    @Test
+    void checkThatLargePartsAreReceived() {
+        byte[] inputs = createInputs(8000);
+        assertTrue(inputs.length > 1024 * 1024 / 2);
+
+        SensitivityAnalysisResult result = runComputation(COMPUTATION_URI, createBody(inputs));
+
+        assertEquals(8000, result.getSensitivityValuesContingencies().size());
+    }
+
+    @Test
+    void checkThatResultLargerThanPrefetchWindowIsStreamed() {
+        byte[] resultBytes = webTestClient.mutate()
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+            .build()
+            .post()
+            .uri(COMPUTATION_URI)
+            .bodyValue(createBody(createInputs(300, 20)).build())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+        assertTrue(resultBytes.length > Queues.SMALL_BUFFER_SIZE * SensitivityComputationServerService.RESULT_CHUNK_SIZE);
+        SensitivityAnalysisResult result = readResult(resultBytes);
+        assertEquals(300, result.getSensitivityValuesContingencies().size());
+        assertEquals(240, result.getSensitivityValuesContingencies().get("co299").size());
+        assertEquals(601., result.getSensitivityValuesContingencies().get("co299").get(0).getValue());
+    }
+
+    @Test
+    void checkThatConcurrentModifiedComputationsOnSameNetworkMatchSequentialOnes() {
+        String networkHash = cacheNetwork();
+        byte[] inputs = createInputs(8);
+        String uri = COMPUTATION_URI + "?contingencyChunks=4";
+        List<NetworkModifications> modifications = List.of(
+            new NetworkModifications(Map.of("G1", 100.), null, null, null),
+            new NetworkModifications(Map.of("G2", 400.), Map.of("L3", 50.), null, null));
+        List<Map<String, List<String>>> expectedValues = modifications.stream()
+            .map(modification -> getValues(runComputation(uri, createModifiedBody(networkHash, modification, inputs))))
+            .collect(Collectors.toList());
+        assertNotEquals(expectedValues.get(0), expectedValues.get(1));
+
+        for (int i = 0; i < 10; i++) {
+            List<Map<String, List<String>>> values = Flux.fromIterable(modifications)
+                .flatMapSequential(modification -> Mono.fromCallable(() -> getValues(runComputation(uri, createModifiedBody(networkHash, modification, inputs))))
+                    .subscribeOn(Schedulers.boundedElastic()))
+                .collectList()
+                .block();
+            assertEquals(expectedValues, values);
+        }
+    }
+
+    @Test
+    void checkThatRequestsAreRejectedBeforeBeingReceivedWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Disposable> blockingComputations = new ArrayList<>();
+        while (scheduler.hasCapacity()) {
+            blockingComputations.add(scheduler.schedule(() -> {
+                release.await();
+                return true;
+            }).subscribe());
+            Thread.sleep(10);
+        }
+        try {
+            AtomicBoolean inputsReceived = new AtomicBoolean();
+            MultipartBodyBuilder body = createBody(createInputs(1));
+            body.asyncPart("modificationsFile", Flux.defer(() -> {
+                inputsReceived.set(true);
+                return Flux.<DataBuffer>just(new DefaultDataBufferFactory().wrap("{}".getBytes(StandardCharsets.UTF_8)));
+            }), DataBuffer.class).filename("modifications.json");
+
+            WebTestClient.bindToApplicationContext(context).build()
+                .post()
+                .uri(COMPUTATION_URI)
+                .bodyValue(body.build())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "60");
+            assertFalse(inputsReceived.get());
+        } finally {
+            release.countDown();
+            blockingComputations.forEach(Disposable::dispose);
+            awaitIdleScheduler();
+        }
+    }
+
+    @Test
+    void checkThatErrorsThrownByComputationsAreSignalled() throws InterruptedException {
+        awaitIdleScheduler();
+        Mono<Object> computation = scheduler.schedule(() -> {
+            throw new ServiceConfigurationError("Provider could not be instantiated");
+        });
+
+        Throwable thrown = assertThrows(RuntimeException.class, () -> computation.block(Duration.ofMinutes(1)));
+        assertTrue(Exceptions.unwrap(thrown) instanceof ServiceConfigurationError);
+    }
+
+    @Test
+    void checkThatBatchVariantResultsAreStreamedOnePerLine() {
+        Map<String, NetworkModifications> variants = new LinkedHashMap<>();
+        variants.put("v1", new NetworkModifications(Map.of("G1", 100.), null, null, null));
+        variants.put("v2", new NetworkModifications(Map.of("G2", 400.), null, null, null));
+        variants.put("unknown", new NetworkModifications(Map.of("UNKNOWN", 0.), null, null, null));
+        MultipartBodyBuilder body = createBody(createInputs(2));
+        body.part("variantsFile", JsonNetworkModifications.writeVariants(variants), MediaType.APPLICATION_JSON).filename("variants.json");
+
+        String response = webTestClient.mutate()
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+            .build()
+            .post()
+            .uri(COMPUTATION_URI + "/batch")
+            .bodyValue(body.build())
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType("application/x-ndjson")
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        Map<String, BatchResultEntry> entries = response.lines()
+            .map(BatchResultEntry::readLine)
+            .collect(Collectors.toMap(BatchResultEntry::getVariantId, entry -> entry));
+        assertEquals(Set.of("v1", "v2", "unknown"), entries.keySet());
+        for (String variantId : List.of("v1", "v2")) {
+            String networkHash = cacheNetwork();
+            SensitivityAnalysisResult expectedResult = runComputation(COMPUTATION_URI, createModifiedBody(networkHash, variants.get(variantId), createInputs(2)));
+            assertNull(entries.get(variantId).getError());
+            assertEquals(getValues(expectedResult), getValues(entries.get(variantId).getResult()));
+        }
+        assertNull(entries.get("unknown").getResult());
+        assertTrue(entries.get("unknown").getError().contains("UNKNOWN"));
+        assertEquals(0, scheduler.getRunningComputations());
+    }
+
+    @Test
+    void checkThatHeldComputationSlotIsReleasedWhenFluxTerminates() throws InterruptedException {
+        awaitIdleScheduler();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch firstReceived = new CountDownLatch(1);
+        Flux<Integer> values = scheduler.scheduleHeld(() -> Flux.just(1)
+            .concatWith(Mono.fromCallable(() -> {
+                release.await();
+                return 2;
+            }).subscribeOn(Schedulers.boundedElastic())))
+            .flatMapMany(flux -> flux)
+            .doOnNext(value -> firstReceived.countDown());
+        Disposable subscription = values.subscribe();
+        try {
+            firstReceived.await();
+            assertEquals(1, scheduler.getRunningComputations());
+        } finally {
+            release.countDown();
+        }
+        awaitIdleScheduler();
+        assertTrue(subscription.isDisposed());
+    }
+
+    @Test
+    void checkThatResultFilterShrinksTheResponse() {
+        byte[] inputs = createInputs(3);
+        SensitivityAnalysisResult unfilteredResult = runComputation(COMPUTATION_URI, createBody(inputs));
+        String firstFunctionId = unfilteredResult.getSensitivityValues().iterator().next().getFactor().getFunction().getId();
+        List<SensitivityResultFilter> filters = List.of(
+            new SensitivityResultFilter(300., null, null, null, null),
+            new SensitivityResultFilter(null, 2, SensitivityResultFilter.TopKScope.CONTINGENCY, null, null),
+            new SensitivityResultFilter(null, 1, SensitivityResultFilter.TopKScope.FUNCTION, null, null),
+            new SensitivityResultFilter(null, null, null, Set.of("co1"), Set.of(firstFunctionId)));
+
+        for (SensitivityResultFilter filter : filters) {
+            MultipartBodyBuilder body = createBody(inputs);
+            body.part("resultFilter", filter.toJson(), MediaType.APPLICATION_JSON);
+
+            SensitivityAnalysisResult result = runComputation(COMPUTATION_URI, body);
+
+            assertEquals(getValues(filter.apply(unfilteredResult)), getValues(result), filter.toJson());
+            assertTrue(countValues(result) < countValues(unfilteredResult), filter.toJson());
+        }
+    }
+
+    @Test
+    void checkThatInvalidResultFilterIsRejected() {
+        for (String resultFilter : List.of("{\"topK\":", "{\"topKScope\":\"UNKNOWN\"}")) {
+            MultipartBodyBuilder body = createBody(createInputs(1));
+            body.part("resultFilter", resultFilter, MediaType.APPLICATION_JSON);
+
+            webTestClient.post()
+                .uri(COMPUTATION_URI)
+                .bodyValue(body.build())
+                .exchange()
+                .expectStatus().isBadRequest();
+        }
+    }
+
+    @Test
+    void checkThatTooLargeResultFilterIsRejected() {
+        MultipartBodyBuilder body = createBody(createInputs(1));
+        body.part("resultFilter", "{\"contingencyIds\":[\"" + "co".repeat(1024 * 1024) + "\"]}", MediaType.APPLICATION_JSON);
+
+        webTestClient.post()
+            .uri(COMPUTATION_URI)
+            .bodyValue(body.build())
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    void checkThatInvalidContingencyChunksAreRejected() {
+        webTestClient.post()
+            .uri(COMPUTATION_URI + "?contingencyChunks=0")
+            .bodyValue(createBody(createInputs(1)).build())
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void checkThatChunkedComputationMatchesSingleOne() {
+        byte[] inputs = createInputs(7);
+        Map<String, List<String>> expectedValues = getValues(runComputation(COMPUTATION_URI, createBody(inputs)));
+
+        Map<String, List<String>> values = getValues(runComputation(COMPUTATION_URI + "?contingencyChunks=3", createBody(inputs)));
+
+        assertEquals(expectedValues, values);
+        assertEquals(new ArrayList<>(expectedValues.keySet()), new ArrayList<>(values.keySet()));
+    }
+
+    @Test
+    void checkThatContingencyChunksAreBoundedByContingencies() {
+        SensitivityAnalysisResult result = runComputation(COMPUTATION_URI + "?contingencyChunks=10", createBody(createInputs(2)));
+
+        assertEquals(List.of("co0", "co1"), new ArrayList<>(result.getSensitivityValuesContingencies().keySet()));
+        assertEquals(12, result.getSensitivityValues().size());
+    }
+
+    @Test
+    void checkThatJobResultIsDownloadedInBinaryWithRanges() {
+        String networkHash = cacheNetwork();
+        String jobId = submitJob(createCachedBody(networkHash, createInputs(3))).getId();
+        assertEquals(State.SUCCEEDED, getJobStatus(jobId, 30).getState());
+        String resultUri = JOBS_URI + "/" + jobId + "/result";
+
+        byte[] resultBytes = webTestClient.get()
+            .uri(resultUri)
+            .accept(MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+        SensitivityAnalysisResult result = BinarySensitivityAnalysisResult.read(new ByteArrayInputStream(resultBytes));
+        assertEquals(List.of("co0", "co1", "co2"), new ArrayList<>(result.getSensitivityValuesContingencies().keySet()));
+
+        webTestClient.get()
+            .uri(resultUri)
+            .accept(MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE))
+            .header(HttpHeaders.RANGE, "bytes=10-19")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+            .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + resultBytes.length)
+            .expectHeader().contentLength(10)
+            .expectBody(byte[].class).isEqualTo(Arrays.copyOfRange(resultBytes, 10, 20));
+
+        webTestClient.get()
+            .uri(resultUri)
+            .accept(MediaType.parseMediaType(BinarySensitivityAnalysisResult.MEDIA_TYPE))
+            .header(HttpHeaders.RANGE, "bytes=" + resultBytes.length + "-")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes */" + resultBytes.length);
+    }
+
+    @Test
+    void checkThatJobResultMatchesComputationResult() {
+        String networkHash = cacheNetwork();
+        byte[] inputs = createInputs(3);
+        Map<String, List<String>> expectedValues = getValues(runComputation(COMPUTATION_URI, createCachedBody(networkHash, inputs)));
+
+        String jobId = submitJob(createCachedBody(networkHash, inputs)).getId();
+        Path jobDirectory = jobStore.getDirectory().resolve(jobId);
+        assertEquals(Paths.get(System.getProperty("java.io.tmpdir")), jobStore.getDirectory().getParent());
+        assertEquals(State.SUCCEEDED, getJobStatus(jobId, 30).getState());
+        assertTrue(Files.exists(jobDirectory));
+
+        byte[] resultBytes = webTestClient.mutate()
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+            .build()
+            .get()
+            .uri(JOBS_URI + "/{jobId}/result", jobId)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+        assertEquals(expectedValues, getValues(readResult(resultBytes)));
+
+        assertEquals(State.SUCCEEDED, cancelJob(jobId).getState());
+        webTestClient.get().uri(JOBS_URI + "/{jobId}", jobId).exchange().expectStatus().isNotFound();
+        assertFalse(Files.exists(jobDirectory));
+    }
+
+    @Test
+    void checkThatComputationIsMetered() throws InterruptedException {
+        List<Phase> phases = List.of(Phase.RECEIVE, Phase.INPUTS_PARSE, Phase.PARAMETERS_PARSE, Phase.COMPUTATION, Phase.RESULT_EXPORT);
+        Map<Phase, Long> initialPhaseCounts = new EnumMap<>(Phase.class);
+        phases.forEach(phase -> initialPhaseCounts.put(phase, getPhaseTimer(phase).count()));
+        DistributionSummary factors = registry.get("sensitivity.computation.factors").summary();
+        DistributionSummary contingencies = registry.get("sensitivity.computation.contingencies").summary();
+        long initialFactorsCount = factors.count();
+        double initialFactorsTotal = factors.totalAmount();
+        double initialContingenciesTotal = contingencies.totalAmount();
+
+        runComputation(COMPUTATION_URI, createBody(createInputs(3)));
+
+        phases.forEach(phase -> assertEquals(initialPhaseCounts.get(phase) + 1, getPhaseTimer(phase).count(), phase.name()));
+        assertEquals(initialFactorsCount + 1, factors.count());
+        assertEquals(initialFactorsTotal + 12, factors.totalAmount());
+        assertEquals(initialContingenciesTotal + 3, contingencies.totalAmount());
+
+        Gauge running = registry.get("sensitivity.computation.running").gauge();
+        Gauge queued = registry.get("sensitivity.computation.queued").gauge();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Disposable> blockingComputations = new ArrayList<>();
+        awaitIdleScheduler();
+        assertEquals(0., running.value());
+        try {
+            // One at a time, as the queue holds a single computation until a pool thread takes it
+            for (int i = 0; i < MAX_CONCURRENT_RUNS + 1; i++) {
+                blockingComputations.add(scheduler.schedule(() -> {
+                    release.await();
+                    return true;
+                }).subscribe());
+                while (scheduler.getRunningComputations() < Math.min(i + 1, MAX_CONCURRENT_RUNS)) {
+                    Thread.sleep(10);
+                }
+            }
+            assertEquals(MAX_CONCURRENT_RUNS, running.value());
+            assertEquals(1., queued.value());
+        } finally {
+            release.countDown();
+            blockingComputations.forEach(Disposable::dispose);
+            awaitIdleScheduler();
+        }
+        assertEquals(0., running.value());
+        assertEquals(0., queued.value());
+    }
+
+    private Timer getPhaseTimer(Phase phase) {
+        return registry.get("sensitivity.computation.phase").tag("phase", phase.name().toLowerCase().replace('_', '-')).timer();
+    }
+
+    @Test
+    void checkThatQueuedJobIsCancelled() throws InterruptedException {
+        String networkHash = cacheNetwork();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Disposable> blockingComputations = new ArrayList<>();
+        String jobId;
+        awaitIdleScheduler();
+        try {
+            // One at a time, as the queue holds a single computation until a pool thread takes it
+            for (int i = 0; i < MAX_CONCURRENT_RUNS; i++) {
+                blockingComputations.add(scheduler.schedule(() -> {
+                    release.await();
+                    return true;
+                }).subscribe());
+                while (scheduler.getRunningComputations() < i + 1) {
+                    Thread.sleep(10);
+                }
+            }
+            SensitivityComputationJobStatus status = submitJob(createCachedBody(networkHash, createInputs(1)));
+            jobId = status.getId();
+            assertEquals(State.QUEUED, status.getState());
+            assertEquals(State.CANCELLED, cancelJob(jobId).getState());
+        } finally {
+            release.countDown();
+            blockingComputations.forEach(Disposable::dispose);
+            awaitIdleScheduler();
+        }
+
+        assertEquals(State.CANCELLED, getJobStatus(jobId, 0).getState());
+        webTestClient.get().uri(JOBS_URI + "/{jobId}/result", jobId).exchange().expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        assertEquals(State.CANCELLED, cancelJob(jobId).getState());
+        webTestClient.get().uri(JOBS_URI + "/{jobId}", jobId).exchange().expectStatus().isNotFound();
+        assertFalse(Files.exists(jobStore.getDirectory().resolve(jobId)));
+    }
+
+    @Test
+    void checkThatCompressedUploadsMatchUncompressedOnes() {
+        byte[] inputs = createInputs(1000);
+        Map<String, List<String>> expectedValues = getValues(runComputation(COMPUTATION_URI, createBody(inputs)));
+        assertTrue(gzip(inputs).length < inputs.length / 2);
+
+        assertEquals(expectedValues, getValues(runComputation(COMPUTATION_URI, createCompressedBody(inputs, "gzip"))));
+
+        MultipartBodyBuilder networkBody = new MultipartBodyBuilder();
+        networkBody.part("networkFile", gzip(NETWORK), MediaType.APPLICATION_XML).filename("network.xiidm")
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        String networkHash = webTestClient.post()
+            .uri(COMPUTATION_URI + "/networks")
+            .bodyValue(networkBody.build())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+        assertEquals(cacheNetwork(), networkHash);
+    }
+
+    @Test
+    void checkThatPartsTooLargeOnceDecompressedAreRejected() {
+        byte[] compressedInputs = gzip(" ".repeat(MAX_DECOMPRESSED_PART_SIZE + 1).getBytes(StandardCharsets.UTF_8));
+        assertTrue(compressedInputs.length < MAX_DECOMPRESSED_PART_SIZE / 100);
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("networkFile", NETWORK, MediaType.APPLICATION_XML).filename("network.xiidm");
+        body.part("inputsFile", compressedInputs, MediaType.APPLICATION_JSON).filename("inputs.json")
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        body.part("parametersFile", createParameters(), MediaType.APPLICATION_JSON).filename("parameters.json");
+
+        webTestClient.post()
+            .uri(COMPUTATION_URI)
+            .bodyValue(body.build())
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    void checkThatUnsupportedPartEncodingIsRejected() {
+        webTestClient.post()
+            .uri(COMPUTATION_URI)
+            .bodyValue(createCompressedBody(createInputs(1), "br").build())
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.farao_community.farao.sensitivity.api.NetworkHashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "sensitivity-computation.warm-up.enabled=true",
+    "sensitivity-computation.warm-up.iterations=" + SensitivityComputationWarmUpTest.ITERATIONS
+})
+class SensitivityComputationWarmUpTest {
+    static final int ITERATIONS = 2;
+
+    @Autowired
+    private SensitivityComputationScheduler scheduler;
+
+    @Autowired
+    private NetworkCache networkCache;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeAll
+    static void setUpPlatformConfig() {
+        TestSensitivityAnalysisProvider.setAsDefault();
+    }
+
+    @Test
+    void checkThatWarmUpRequestsAreComputedByTheServer() {
+        assertEquals(ITERATIONS, scheduler.getCompletedComputations());
+        assertEquals(0, scheduler.getRejectedComputations());
+    }
+
+    @Test
+    void checkThatWarmUpLeavesNeitherCachedNetworkNorMetrics() throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/warm-up/network.xiidm")) {
+            assertFalse(networkCache.contains(NetworkHashing.hash(inputStream)));
+        }
+        for (Timer timer : registry.find("sensitivity.computation.phase").timers()) {
+            assertEquals(0, timer.count());
+        }
+        assertEquals(0, registry.get("sensitivity.computation.factors").summary().count());
+        assertEquals(0, registry.get("sensitivity.computation.contingencies").summary().count());
+        assertTrue(registry.find("http.server.requests").tag("uri", "/api/v1/sensitivity-computation").meters().isEmpty());
+    }
+}
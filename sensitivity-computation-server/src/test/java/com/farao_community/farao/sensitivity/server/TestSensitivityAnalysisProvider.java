@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+package com.farao_community.farao.sensitivity.server;
+
+import com.powsybl.commons.config.InMemoryPlatformConfig;
+import com.powsybl.commons.config.PlatformConfig;
+import com.powsybl.computation.ComputationManager;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.network.Generator;
+import com.powsybl.iidm.network.Load;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.sensitivity.*;
+
+import java.nio.file.FileSystems;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sensitivity analysis used by the server tests in place of Hades2.
+ *
+ * The value of each factor is read from the working variant of the network: it is the active power setpoint
+ * of the variable injection in the base case, plus one after contingencies.
+ *
+ * @author Sebastien Murgey {@literal <sebastien.murgey@rte-france.com>}
+ */
+public class TestSensitivityAnalysisProvider implements SensitivityAnalysisProvider {
+    static final String NAME = "TestSensitivityAnalysis";
+
+    /**
+     * Makes this provider the default one, as Hades2 is also on the classpath. Hades2 still needs
+     * its module to be instantiated when providers are looked up.
+     */
+    static void setAsDefault() {
+        InMemoryPlatformConfig platformConfig = new InMemoryPlatformConfig(FileSystems.getDefault());
+        platformConfig.createModuleConfig("sensitivity-analysis")
+            .setStringProperty("default-impl-name", NAME);
+        platformConfig.createModuleConfig("hades2")
+            .setStringProperty("homeDir", System.getProperty("java.io.tmpdir"));
+        PlatformConfig.setDefaultConfig(platformConfig);
+    }
+
+    @Override
+    public CompletableFuture<SensitivityAnalysisResult> run(Network network, String workingVariantId, SensitivityFactorsProvider factorsProvider, List<Contingency> contingencies, SensitivityAnalysisParameters sensiParameters, ComputationManager computationManager) {
+        network.getVariantManager().setWorkingVariant(workingVariantId);
+        List<SensitivityFactor> commonFactors = factorsProvider.getCommonFactors(network);
+        List<SensitivityFactor> basecaseFactors = new ArrayList<>(commonFactors);
+        basecaseFactors.addAll(factorsProvider.getAdditionalFactors(network));
+        Map<String, List<SensitivityValue>> contingenciesValues = new LinkedHashMap<>();
+        for (Contingency contingency : contingencies) {
+            List<SensitivityFactor> contingencyFactors = new ArrayList<>(commonFactors);
+            contingencyFactors.addAll(factorsProvider.getAdditionalFactors(network, contingency.getId()));
+            contingenciesValues.put(contingency.getId(), createValues(network, contingencyFactors, 1));
+        }
+        return CompletableFuture.completedFuture(new SensitivityAnalysisResult(true, Collections.emptyMap(), "",
+            createValues(network, basecaseFactors, 0), contingenciesValues));
+    }
+
+    private static List<SensitivityValue> createValues(Network network, List<SensitivityFactor> factors, int state) {
+        List<SensitivityValue> values = new ArrayList<>(factors.size());
+        for (SensitivityFactor factor : factors) {
+            values.add(new SensitivityValue(factor, getInjection(network, factor.getVariable().getId()) + state, state, 0.));
+        }
+        return values;
+    }
+
+    private static double getInjection(Network network, String id) {
+        Generator generator = network.getGenerator(id);
+        if (generator != null) {
+            return generator.getTargetP();
+        }
+        Load load = network.getLoad(id);
+        return load != null ? load.getP0() : 0.;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getVersion() {
+        return "1.0.0";
+    }
+}